@@ -0,0 +1,51 @@
+package cloud.catfish.admin.config;
+
+import cloud.catfish.api.DeferredJoin;
+import cloud.catfish.api.PageCountCache;
+import cloud.catfish.api.PagedQuery;
+import cloud.catfish.api.ParallelPageExecutor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 分页查询配置
+ * page.parallel-count.enabled=true时，精确统计总数的分页查询并行执行COUNT(*)和数据查询。
+ * 每个并行查询额外占用一个连接，并行数默认为Druid max-active的四分之一，
+ * 手动配置的并行数不超过max-active的一半，保证其余请求始终有可用连接
+ * page.deferred-join.offset-threshold大于0时，偏移量达到该值的页码分页改为先查主键再取整行
+ * page.count-cache-ttl-ms和page.count-cache-size设置CACHED统计方式的总数缓存有效期和容量
+ */
+@Slf4j
+@Configuration
+public class PagedQueryConfig {
+
+    public PagedQueryConfig(@Value("${page.deferred-join.offset-threshold:0}") long offsetThreshold,
+                            @Value("${page.count-cache-ttl-ms:60000}") long countCacheTtlMillis,
+                            @Value("${page.count-cache-size:10000}") int countCacheSize) {
+        DeferredJoin.useOffsetThreshold(offsetThreshold);
+        if (offsetThreshold > 0) {
+            log.info("Deferred join enabled for page offsets from {}", offsetThreshold);
+        }
+        PageCountCache.useSettings(countCacheTtlMillis, countCacheSize);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "page.parallel-count.enabled", havingValue = "true")
+    public ParallelPageExecutor parallelPageExecutor(@Value("${spring.datasource.druid.max-active:8}") int maxActive,
+                                                     @Value("${page.parallel-count.max-concurrent:0}") int maxConcurrent) {
+        int limit = Math.max(1, maxActive / 2);
+        int permits = maxConcurrent > 0 ? maxConcurrent : ParallelPageExecutor.maxConcurrentFor(maxActive);
+        if (permits > limit) {
+            log.warn("page.parallel-count.max-concurrent {} exceeds half of the pool ({} of max-active {}), using {}",
+                    permits, limit, maxActive, limit);
+            permits = limit;
+        }
+        ParallelPageExecutor executor = new ParallelPageExecutor(permits);
+        PagedQuery.useParallelCount(executor);
+        log.info("Parallel count queries enabled with {} concurrent searches", permits);
+        return executor;
+    }
+}
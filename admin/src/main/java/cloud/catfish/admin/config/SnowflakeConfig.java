@@ -0,0 +1,66 @@
+package cloud.catfish.admin.config;
+
+import cloud.catfish.common.metrics.SnowflakeMetrics;
+import cloud.catfish.common.util.FileLockNodeIdAllocator;
+import cloud.catfish.common.util.JdbcNodeIdAllocator;
+import cloud.catfish.common.util.NodeIdAllocator;
+import cloud.catfish.common.util.SnowflakeUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+/**
+ * Snowflake节点ID租约配置
+ * 启动时通过snowflake.allocator指定的方式租用节点ID，生成的Controller通过SnowflakeUtil使用该节点ID：
+ * jdbc - 多实例部署，从数据库表租用并定时续约；file - 单机多进程部署，使用本机文件锁
+ * 存在Micrometer时注册snowflake.*指标（生成数量、序列号耗尽等待、时钟回拨、竞争次数）
+ */
+@Slf4j
+@Configuration
+public class SnowflakeConfig {
+
+    @Configuration
+    @ConditionalOnProperty(name = "snowflake.allocator", havingValue = "jdbc")
+    static class JdbcAllocatorConfig {
+
+        @Bean(destroyMethod = "close")
+        public NodeIdAllocator nodeIdAllocator(DataSource dataSource,
+                                               @Value("${snowflake.lease-table:" + JdbcNodeIdAllocator.DEFAULT_TABLE + "}") String table,
+                                               @Value("${snowflake.lease-ttl:30s}") Duration leaseTtl) {
+            return lease(new JdbcNodeIdAllocator(dataSource, table, leaseTtl));
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "snowflake.allocator", havingValue = "file")
+    static class FileLockAllocatorConfig {
+
+        @Bean(destroyMethod = "close")
+        public NodeIdAllocator nodeIdAllocator(@Value("${snowflake.lock-dir:${java.io.tmpdir}/snowflake-node-ids}") String lockDir) {
+            return lease(new FileLockNodeIdAllocator(Paths.get(lockDir)));
+        }
+    }
+
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+    static class MetricsConfig {
+
+        @Bean
+        public SnowflakeMetrics snowflakeMetrics() {
+            return SnowflakeMetrics.forSnowflakeUtil();
+        }
+    }
+
+    private static NodeIdAllocator lease(NodeIdAllocator allocator) {
+        int nodeId = SnowflakeUtil.useNodeIdAllocator(allocator);
+        log.info("Leased snowflake node ID {} with {}", nodeId, allocator.getClass().getSimpleName());
+        return allocator;
+    }
+}
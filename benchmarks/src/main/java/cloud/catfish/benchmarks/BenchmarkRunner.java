@@ -0,0 +1,46 @@
+package cloud.catfish.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * Benchmark Runner
+ *
+ * Entry point of benchmarks.jar. Accepts the usual JMH command line and writes the results
+ * as JSON to target/jmh-result.json unless -rf/-rff say otherwise, so runs of two commits
+ * can be diffed or loaded into a JMH visualizer:
+ *
+ * <pre>
+ *   mvn -pl common,benchmarks -am package
+ *   java -jar benchmarks/target/benchmarks.jar                     # everything
+ *   java -jar benchmarks/target/benchmarks.jar Snowflake -prof gc  # by regex, with allocation rates
+ * </pre>
+ */
+public class BenchmarkRunner {
+
+    private static final String DEFAULT_RESULT_FILE = "target/jmh-result.json";
+
+    private BenchmarkRunner() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            new File(DEFAULT_RESULT_FILE).getParentFile().mkdirs();
+            options.result(DEFAULT_RESULT_FILE);
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,97 @@
+package cloud.catfish.benchmarks;
+
+import cloud.catfish.api.CommonPage;
+import cloud.catfish.api.CommonResult;
+import cloud.catfish.benchmarks.CommonResultSerializationBenchmark.Admin;
+import cloud.catfish.common.util.Snowflake;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binary Codec Benchmark
+ *
+ * Encodes and decodes a page of ums_admin records wrapped in CommonResult, as a generated
+ * /search endpoint answers it, with the JSON, Smile and CBOR codecs registered in admin.
+ * The payload size of every format is printed once per fork when the trial starts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class BinaryCodecBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private CommonResult<CommonPage<Admin>> result;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper mapper = new ObjectMapper(factory(format));
+        writer = mapper.writer();
+        reader = mapper.readerFor(new TypeReference<CommonResult<CommonPage<Admin>>>() {
+        });
+
+        Snowflake generator = new Snowflake(1);
+        List<Admin> admins = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            admins.add(new Admin(generator.nextId(), "user" + i, "User Number " + i, "user" + i + "@example.com"));
+        }
+        CommonPage<Admin> page = CommonPage.of(admins, 1, pageSize, 1000L, null);
+        result = CommonResult.success(page);
+        encoded = writer.writeValueAsBytes(result);
+        System.out.printf("%n%s payload of %d records: %d bytes%n", format, pageSize, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return writer.writeValueAsBytes(result);
+    }
+
+    @Benchmark
+    public CommonResult<CommonPage<Admin>> decode() throws IOException {
+        return reader.readValue(encoded);
+    }
+
+    private static JsonFactory factory(String format) {
+        switch (format) {
+            case "json":
+                return new JsonFactory();
+            case "smile":
+                return new SmileFactory();
+            case "cbor":
+                return new CBORFactory();
+            default:
+                throw new IllegalArgumentException("Unknown format: " + format);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package cloud.catfish.benchmarks;
+
+import cloud.catfish.common.util.CachedClockSource;
+import cloud.catfish.common.util.ClockRollbackPolicy;
+import cloud.catfish.common.util.ClockSource;
+import cloud.catfish.common.util.Snowflake;
+import cloud.catfish.common.util.SnowflakeLayout;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Clock Source Benchmark
+ *
+ * Cost of reading each clock source on its own and inside nextId(). Run with
+ * {@code -prof gc} to see the Instant allocated per call by the instant clock:
+ *
+ * <pre>
+ *   java -jar benchmarks/target/benchmarks.jar ClockSourceBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class ClockSourceBenchmark {
+
+    @Param({"instant", "system", "cached"})
+    public String clock;
+
+    private ClockSource clockSource;
+    private Snowflake generator;
+
+    @Setup
+    public void setUp() {
+        switch (clock) {
+            case "instant":
+                clockSource = ClockSource.instant();
+                break;
+            case "system":
+                clockSource = ClockSource.system();
+                break;
+            case "cached":
+                clockSource = CachedClockSource.getInstance();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown clock: " + clock);
+        }
+        generator = new Snowflake(SnowflakeLayout.DEFAULT, 1, clockSource, ClockRollbackPolicy.fail());
+    }
+
+    @Benchmark
+    public long millis() {
+        return clockSource.millis();
+    }
+
+    @Benchmark
+    public long nextId() {
+        return generator.nextId();
+    }
+}
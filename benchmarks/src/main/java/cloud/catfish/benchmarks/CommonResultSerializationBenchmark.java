@@ -0,0 +1,131 @@
+package cloud.catfish.benchmarks;
+
+import cloud.catfish.api.CommonPage;
+import cloud.catfish.api.CommonResult;
+import cloud.catfish.common.util.Snowflake;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CommonResult Serialization Benchmark
+ *
+ * Jackson serialization of the response envelope as the controllers return it: an empty
+ * success, a single record and a CommonPage of records shaped like the generated ums_admin
+ * model. Each call builds its envelope, as a controller does.
+ *
+ * The direct benchmarks use CommonResultSerializer with its pre-encoded messages and the
+ * shared success(null) instance; the reflective ones serialize CommonResult as a plain bean,
+ * as before. Run with {@code -prof gc} to compare allocation per response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class CommonResultSerializationBenchmark {
+
+    @Param({"10", "100"})
+    public int pageSize;
+
+    private ObjectWriter writer;
+    private ObjectWriter reflectiveWriter;
+    private Admin record;
+    private CommonPage<Admin> commonPage;
+
+    @Setup
+    public void setUp() {
+        writer = new ObjectMapper().writer();
+        reflectiveWriter = new ObjectMapper().addMixIn(CommonResult.class, BeanEnvelope.class).writer();
+        Snowflake generator = new Snowflake(1);
+        List<Admin> admins = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            admins.add(new Admin(generator.nextId(), "user" + i, "User Number " + i, "user" + i + "@example.com"));
+        }
+        commonPage = new CommonPage<>();
+        commonPage.setPageNum(1);
+        commonPage.setPageSize(pageSize);
+        commonPage.setTotal(1000L);
+        commonPage.setTotalPage((1000 + pageSize - 1) / pageSize);
+        commonPage.setList(admins);
+        record = admins.get(0);
+    }
+
+    @Benchmark
+    public byte[] successEmpty() throws JsonProcessingException {
+        return writer.writeValueAsBytes(CommonResult.success(null));
+    }
+
+    @Benchmark
+    public byte[] successRecord() throws JsonProcessingException {
+        return writer.writeValueAsBytes(CommonResult.success(record));
+    }
+
+    @Benchmark
+    public byte[] successPage() throws JsonProcessingException {
+        return writer.writeValueAsBytes(CommonResult.success(commonPage));
+    }
+
+    @Benchmark
+    public byte[] successEmptyReflective() throws JsonProcessingException {
+        return reflectiveWriter.writeValueAsBytes(CommonResult.success(null));
+    }
+
+    @Benchmark
+    public byte[] successRecordReflective() throws JsonProcessingException {
+        return reflectiveWriter.writeValueAsBytes(CommonResult.success(record));
+    }
+
+    @Benchmark
+    public byte[] successPageReflective() throws JsonProcessingException {
+        return reflectiveWriter.writeValueAsBytes(CommonResult.success(commonPage));
+    }
+
+    /**
+     * Mix-in that drops the custom serializer, so CommonResult is introspected as a bean
+     */
+    @JsonSerialize(using = JsonSerializer.None.class)
+    abstract static class BeanEnvelope {
+    }
+
+    /**
+     * A row of ums_admin as the generated model exposes it
+     */
+    public static class Admin {
+        public Long id;
+        public String username;
+        public String nickName;
+        public String email;
+        public Integer status = 1;
+        public Date createTime = new Date(1700000000000L);
+
+        public Admin() {
+        }
+
+        Admin(Long id, String username, String nickName, String email) {
+            this.id = id;
+            this.username = username;
+            this.nickName = nickName;
+            this.email = email;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package cloud.catfish.benchmarks;
+
+import cloud.catfish.common.util.Snowflake;
+import cloud.catfish.common.util.SnowflakeIdCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snowflake ID Codec Benchmark
+ *
+ * Encoding and decoding with {@link SnowflakeIdCodec} against Long.toString and
+ * Long.parseLong, over a set of real IDs so the JIT cannot fold a constant. Run with
+ * {@code -prof gc} to check the buffer variants do not allocate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class IdCodecBenchmark {
+
+    private static final int ID_COUNT = 1024;
+
+    @Param({"BASE62", "CROCKFORD_BASE32"})
+    public SnowflakeIdCodec codec;
+
+    private long[] ids;
+    private String[] encoded;
+    private String[] decimal;
+    private char[][] encodedChars;
+    private final char[] buffer = new char[SnowflakeIdCodec.MAX_WIDTH];
+    private int index;
+
+    @Setup
+    public void setUp() {
+        ids = new Snowflake(1).nextIds(ID_COUNT);
+        encoded = new String[ID_COUNT];
+        decimal = new String[ID_COUNT];
+        encodedChars = new char[ID_COUNT][];
+        for (int i = 0; i < ID_COUNT; i++) {
+            encoded[i] = codec.encode(ids[i]);
+            decimal[i] = Long.toString(ids[i]);
+            encodedChars[i] = encoded[i].toCharArray();
+        }
+    }
+
+    private int next() {
+        return index = (index + 1) & (ID_COUNT - 1);
+    }
+
+    @Benchmark
+    public char[] encodeToBuffer() {
+        codec.encode(ids[next()], buffer, 0);
+        return buffer;
+    }
+
+    @Benchmark
+    public String encodeToString() {
+        return codec.encode(ids[next()]);
+    }
+
+    @Benchmark
+    public String longToString() {
+        return Long.toString(ids[next()]);
+    }
+
+    @Benchmark
+    public long decodeFromBuffer() {
+        char[] chars = encodedChars[next()];
+        return codec.decode(chars, 0, chars.length);
+    }
+
+    @Benchmark
+    public long decodeString() {
+        return codec.decode(encoded[next()]);
+    }
+
+    @Benchmark
+    public long parseLong() {
+        return Long.parseLong(decimal[next()]);
+    }
+}
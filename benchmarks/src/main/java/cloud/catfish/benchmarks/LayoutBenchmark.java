@@ -0,0 +1,181 @@
+package cloud.catfish.benchmarks;
+
+import cloud.catfish.common.util.ClockRollbackPolicy;
+import cloud.catfish.common.util.ClockSource;
+import cloud.catfish.common.util.Snowflake;
+import cloud.catfish.common.util.SnowflakeLayout;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snowflake Layout Benchmark
+ *
+ * Checks that a configurable {@link SnowflakeLayout} costs nothing over constants: the
+ * layout decoders, and a copy of the generator reading the layout from final fields, against
+ * a copy with the classic 41/10/12 layout hardcoded as static finals. The generators run on a
+ * clock that moves one millisecond per call, so sequence exhaustion (one ID per 244ns) does
+ * not hide the cost of composing the ID. Decoding is measured through the static
+ * {@link SnowflakeLayout#DEFAULT} and through a layout held in a field.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class LayoutBenchmark {
+
+    private Snowflake layoutGenerator;
+    private FieldSnowflake fieldGenerator;
+    private HardcodedSnowflake hardcodedGenerator;
+    private SnowflakeLayout layout;
+    private long id;
+    private long tick;
+
+    @Setup
+    public void setUp() {
+        layout = SnowflakeLayout.DEFAULT;
+        tick = System.currentTimeMillis();
+        ClockSource ticking = () -> tick++;
+        layoutGenerator = new Snowflake(layout, 1, ticking, ClockRollbackPolicy.fail());
+        fieldGenerator = new FieldSnowflake(layout, 1, ticking);
+        hardcodedGenerator = new HardcodedSnowflake(1, ticking);
+        id = layoutGenerator.nextId();
+    }
+
+    @Benchmark
+    public long nextIdLayout() {
+        return layoutGenerator.nextId();
+    }
+
+    @Benchmark
+    public long nextIdFields() {
+        return fieldGenerator.nextId();
+    }
+
+    @Benchmark
+    public long nextIdHardcoded() {
+        return hardcodedGenerator.nextId();
+    }
+
+    @Benchmark
+    public long decodeLayout() {
+        return layout.getTimestamp(id) ^ layout.getNodeId(id) ^ layout.getSequence(id);
+    }
+
+    @Benchmark
+    public long decodeDefault() {
+        return SnowflakeLayout.DEFAULT.getTimestamp(id) ^ SnowflakeLayout.DEFAULT.getNodeId(id) ^ SnowflakeLayout.DEFAULT.getSequence(id);
+    }
+
+    @Benchmark
+    public long decodeHardcoded() {
+        return HardcodedSnowflake.getTimestamp(id) ^ HardcodedSnowflake.getNodeId(id) ^ HardcodedSnowflake.getSequence(id);
+    }
+
+    /**
+     * The generator as it was before layouts, without clock rollback handling
+     */
+    static final class HardcodedSnowflake {
+
+        private static final long EPOCH = 1420070400000L;
+        private static final long NODE_ID_BITS = 10L;
+        private static final long SEQUENCE_BITS = 12L;
+        private static final long MAX_NODE_ID = (1L << NODE_ID_BITS) - 1;
+        private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+        private static final long NODE_ID_SHIFT = SEQUENCE_BITS;
+        private static final long TIMESTAMP_SHIFT = SEQUENCE_BITS + NODE_ID_BITS;
+
+        private final long nodeId;
+        private final ClockSource clock;
+        private long lastTimestamp = -1L;
+        private long sequence = 0L;
+
+        HardcodedSnowflake(long nodeId, ClockSource clock) {
+            this.nodeId = nodeId;
+            this.clock = clock;
+        }
+
+        synchronized long nextId() {
+            long currentTimestamp = clock.millis();
+            if (currentTimestamp < lastTimestamp) {
+                throw new IllegalStateException("Clock moved backwards");
+            }
+            if (currentTimestamp == lastTimestamp) {
+                sequence = (sequence + 1) & MAX_SEQUENCE;
+                if (sequence == 0) {
+                    while (currentTimestamp <= lastTimestamp) {
+                        currentTimestamp = clock.millis();
+                    }
+                }
+            } else {
+                sequence = 0;
+            }
+            lastTimestamp = currentTimestamp;
+            return ((currentTimestamp - EPOCH) << TIMESTAMP_SHIFT) | (nodeId << NODE_ID_SHIFT) | sequence;
+        }
+
+        static long getTimestamp(long id) {
+            return (id >> TIMESTAMP_SHIFT) + EPOCH;
+        }
+
+        static long getNodeId(long id) {
+            return (id >> NODE_ID_SHIFT) & MAX_NODE_ID;
+        }
+
+        static long getSequence(long id) {
+            return id & MAX_SEQUENCE;
+        }
+    }
+
+    /**
+     * The same generator with the layout copied into final fields, as {@link Snowflake} does
+     */
+    static final class FieldSnowflake {
+
+        private final long epoch;
+        private final long maxSequence;
+        private final int timestampShift;
+        private final long shiftedNodeId;
+        private final ClockSource clock;
+        private long lastTimestamp = -1L;
+        private long sequence = 0L;
+
+        FieldSnowflake(SnowflakeLayout layout, long nodeId, ClockSource clock) {
+            this.epoch = layout.getEpoch();
+            this.maxSequence = layout.getMaxSequence();
+            this.timestampShift = layout.getTimestampShift();
+            this.shiftedNodeId = nodeId << layout.getNodeIdShift();
+            this.clock = clock;
+        }
+
+        synchronized long nextId() {
+            long currentTimestamp = clock.millis();
+            if (currentTimestamp < lastTimestamp) {
+                throw new IllegalStateException("Clock moved backwards");
+            }
+            if (currentTimestamp == lastTimestamp) {
+                sequence = (sequence + 1) & maxSequence;
+                if (sequence == 0) {
+                    while (currentTimestamp <= lastTimestamp) {
+                        currentTimestamp = clock.millis();
+                    }
+                }
+            } else {
+                sequence = 0;
+            }
+            lastTimestamp = currentTimestamp;
+            return ((currentTimestamp - epoch) << timestampShift) | shiftedNodeId | sequence;
+        }
+    }
+}
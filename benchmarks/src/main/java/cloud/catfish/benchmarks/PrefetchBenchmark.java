@@ -0,0 +1,79 @@
+package cloud.catfish.benchmarks;
+
+import cloud.catfish.common.util.ClockRollbackPolicy;
+import cloud.catfish.common.util.ClockSource;
+import cloud.catfish.common.util.PrefetchingIdSource;
+import cloud.catfish.common.util.Snowflake;
+import cloud.catfish.common.util.SnowflakeLayout;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prefetching ID Source Benchmark
+ *
+ * Latency of taking an ID from a {@link PrefetchingIdSource} against calling the generator
+ * it prefetches from. Sustained load beyond 4096 IDs per millisecond drains any buffer, so
+ * the interesting numbers are the tail percentiles of the sample mode, not the mean.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class PrefetchBenchmark {
+
+    @Param({"1024", "16384"})
+    public int capacity;
+
+    private Snowflake generator;
+    private PrefetchingIdSource source;
+
+    @Setup
+    public void setUp() {
+        generator = new Snowflake(SnowflakeLayout.DEFAULT, 1, ClockSource.system(), ClockRollbackPolicy.fail());
+        source = new PrefetchingIdSource(new Snowflake(SnowflakeLayout.DEFAULT, 2, ClockSource.system(), ClockRollbackPolicy.fail()), capacity);
+    }
+
+    @TearDown
+    public void tearDown() {
+        source.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long prefetched() {
+        return source.nextId();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long direct() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long prefetchedContended() {
+        return source.nextId();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long directContended() {
+        return generator.nextId();
+    }
+}
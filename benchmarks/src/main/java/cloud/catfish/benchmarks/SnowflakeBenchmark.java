@@ -0,0 +1,85 @@
+package cloud.catfish.benchmarks;
+
+import cloud.catfish.common.util.ClockRollbackPolicy;
+import cloud.catfish.common.util.ClockSource;
+import cloud.catfish.common.util.LockFreeSnowflake;
+import cloud.catfish.common.util.Snowflake;
+import cloud.catfish.common.util.SnowflakeLayout;
+import cloud.catfish.common.util.SnowflakeRange;
+import cloud.catfish.common.util.StripedSnowflake;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snowflake Engine Benchmark
+ *
+ * Throughput of one shared generator per engine, called from one thread and from eight
+ * contending threads. The default layout caps a single node ID at 4096 IDs per
+ * millisecond, so the synchronized and lock-free engines level off at about 4M ops/s once
+ * they wait for the next millisecond; the striped engine spreads over 4 node IDs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class SnowflakeBenchmark {
+
+    @Param({"synchronized", "lock-free", "striped"})
+    public String engine;
+
+    private Snowflake generator;
+
+    @Setup
+    public void setUp() {
+        ClockSource clock = ClockSource.system();
+        ClockRollbackPolicy policy = ClockRollbackPolicy.fail();
+        switch (engine) {
+            case "synchronized":
+                generator = new Snowflake(SnowflakeLayout.DEFAULT, 1, clock, policy);
+                break;
+            case "lock-free":
+                generator = new LockFreeSnowflake(SnowflakeLayout.DEFAULT, 1, clock, policy);
+                break;
+            case "striped":
+                generator = new StripedSnowflake(SnowflakeLayout.DEFAULT, 4, 2, clock, policy);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown engine: " + engine);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long nextId() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long nextIdContended() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    @OperationsPerInvocation(64)
+    public long reserveRangeContended() {
+        SnowflakeRange range = generator.reserveRange(64);
+        return range.get(63);
+    }
+}
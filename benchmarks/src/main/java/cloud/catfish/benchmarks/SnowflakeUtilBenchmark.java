@@ -0,0 +1,68 @@
+package cloud.catfish.benchmarks;
+
+import cloud.catfish.common.util.Snowflake;
+import cloud.catfish.common.util.SnowflakeUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SnowflakeUtil Benchmark
+ *
+ * Cost of going through the utility rather than holding a generator: the default-node path,
+ * the per-node registry lookup and a directly held generator, each with a node ID of its
+ * own so their sequences do not interfere. The engine follows the snowflake.* system
+ * properties, e.g. {@code -jvmArgsAppend -Dsnowflake.engine=lock-free}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class SnowflakeUtilBenchmark {
+
+    private static final int REGISTRY_NODE_ID = 2;
+    private static final int DIRECT_NODE_ID = 3;
+
+    private Snowflake generator;
+
+    @Setup
+    public void setUp() {
+        generator = SnowflakeUtil.getGenerator(DIRECT_NODE_ID);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long defaultNode() {
+        return SnowflakeUtil.nextId();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long registry() {
+        return SnowflakeUtil.nextId(REGISTRY_NODE_ID);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long direct() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long registryContended() {
+        return SnowflakeUtil.nextId(REGISTRY_NODE_ID);
+    }
+}
@@ -0,0 +1,50 @@
+package cloud.catfish.benchmarks;
+
+import cloud.catfish.common.param.SortSpec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sort Parsing Benchmark
+ *
+ * Translation of the 'fieldName,direction' sort parameter every search request carries
+ * into an ORDER BY clause through the generated {@link SortSpec} whitelist.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class SortParsingBenchmark {
+
+    @Param({"", "id", "id,desc", "createTime,asc"})
+    public String sort;
+
+    private SortSpec sortSpec;
+
+    @Setup
+    public void setUp() {
+        sortSpec = SortSpec.builder("User", SortSpec.UnindexedSort.ALLOW)
+                .column("id", "id", true)
+                .column("username", "username", true)
+                .column("createTime", "create_time", false)
+                .build();
+    }
+
+    @Benchmark
+    public String toOrderByClause() {
+        return sortSpec.toOrderByClause(sort);
+    }
+}
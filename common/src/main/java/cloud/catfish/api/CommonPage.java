@@ -1,16 +1,21 @@
 package cloud.catfish.api;
 
-import com.github.pagehelper.PageInfo;
+import cloud.catfish.common.json.CommonPageSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.Data;
 import org.springframework.data.domain.Page;
 
 import java.util.List;
+import java.util.Set;
+import java.util.function.ToLongFunction;
 
 /**
  * 通用分页数据封装类
+ * 分页数据直接引用查询返回的列表（PageHelper的Page），不复制；序列化时逐条写出列表元素
  * Created by macro on 2019/4/19.
  */
 @Data
+@JsonSerialize(using = CommonPageSerializer.class)
 public class CommonPage<T> {
     /**
      * 当前页码
@@ -32,31 +37,108 @@ public class CommonPage<T> {
      * 分页数据
      */
     private List<T> list;
+    /**
+     * 键集分页的下一页游标，没有下一页时为空
+     */
+    private String nextCursor;
+    /**
+     * 是否还有下一页
+     */
+    private Boolean hasNext;
+    /**
+     * 总条数的统计方式，NONE时总条数为空
+     */
+    private CountStrategy countStrategy;
+    /**
+     * 列投影时查询的属性，列表元素只序列化这些属性；为空时序列化全部属性。不写入响应
+     */
+    private Set<String> fields;
 
     /**
-     * 将PageHelper分页后的list转为分页信息
+     * 将PageHelper分页后的list转为分页信息，直接读取Page中的分页参数，不经过PageInfo
      */
     public static <T> CommonPage<T> restPage(List<T> list) {
         CommonPage<T> result = new CommonPage<T>();
-        PageInfo<T> pageInfo = new PageInfo<T>(list);
-//        result.setTotalPage(pageInfo.getPages());
-//        result.setPageNum(pageInfo.getPageNum());
-//        result.setPageSize(pageInfo.getPageSize());
-//        result.setTotal(pageInfo.getTotal());
-//        result.setList(pageInfo.getList());
+        result.setList(list);
+        if (list instanceof com.github.pagehelper.Page) {
+            com.github.pagehelper.Page<T> page = (com.github.pagehelper.Page<T>) list;
+            result.setPageNum(page.getPageNum());
+            result.setPageSize(page.getPageSize());
+            if (page.isCount()) {
+                result.setTotal(page.getTotal());
+                result.setTotalPage(page.getPages());
+                result.setHasNext(page.getPageNum() < page.getPages());
+                result.setCountStrategy(CountStrategy.EXACT);
+            }
+        } else {
+            // 未经PageHelper分页的完整结果
+            result.setPageNum(1);
+            result.setPageSize(list.size());
+            result.setTotal((long) list.size());
+            result.setTotalPage(list.isEmpty() ? 0 : 1);
+            result.setHasNext(false);
+            result.setCountStrategy(CountStrategy.EXACT);
+        }
+        return result;
+    }
+
+    /**
+     * 按指定统计方式得到的总数生成分页信息
+     *
+     * @param list          分页数据
+     * @param pageNum       当前页码
+     * @param pageSize      每页数量
+     * @param total         总条数，未统计时为空
+     * @param countStrategy 总条数的统计方式
+     */
+    public static <T> CommonPage<T> of(List<T> list, int pageNum, int pageSize, Long total, CountStrategy countStrategy) {
+        CommonPage<T> result = new CommonPage<T>();
+        result.setPageNum(pageNum);
+        result.setPageSize(pageSize);
+        result.setList(list);
+        result.setTotal(total);
+        result.setCountStrategy(countStrategy);
+        if (total != null && pageSize > 0) {
+            result.setTotalPage((int) ((total + pageSize - 1) / pageSize));
+            result.setHasNext((long) pageNum * pageSize < total);
+        }
+        return result;
+    }
+
+    /**
+     * 将键集分页查询结果转为分页信息
+     *
+     * @param rows     按主键升序、多取一条（LIMIT pageSize + 1）的查询结果
+     * @param pageSize 每页数量
+     * @param idGetter 主键取值方法
+     */
+    public static <T> CommonPage<T> keysetPage(List<T> rows, int pageSize, ToLongFunction<T> idGetter) {
+        CommonPage<T> result = new CommonPage<T>();
+        result.setPageSize(pageSize);
+        result.setCountStrategy(CountStrategy.NONE);
+        result.setHasNext(rows.size() > pageSize);
+        if (rows.size() > pageSize) {
+            List<T> page = rows.subList(0, pageSize);
+            result.setList(page);
+            result.setNextCursor(PageCursor.encode(idGetter.applyAsLong(page.get(pageSize - 1))));
+        } else {
+            result.setList(rows);
+        }
         return result;
     }
 
     /**
-     * 将SpringData分页后的list转为分页信息
+     * 将SpringData分页后的list转为分页信息，页码转为从1开始
      */
     public static <T> CommonPage<T> restPage(Page<T> pageInfo) {
         CommonPage<T> result = new CommonPage<T>();
-//        result.setTotalPage(pageInfo.getTotalPages());
-//        result.setPageNum(pageInfo.getNumber());
-//        result.setPageSize(pageInfo.getSize());
-//        result.setTotal(pageInfo.getTotalElements());
-//        result.setList(pageInfo.getContent());
+        result.setTotalPage(pageInfo.getTotalPages());
+        result.setPageNum(pageInfo.getNumber() + 1);
+        result.setPageSize(pageInfo.getSize());
+        result.setTotal(pageInfo.getTotalElements());
+        result.setList(pageInfo.getContent());
+        result.setHasNext(pageInfo.hasNext());
+        result.setCountStrategy(CountStrategy.EXACT);
         return result;
     }
 
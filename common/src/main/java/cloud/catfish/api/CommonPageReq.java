@@ -2,6 +2,8 @@ package cloud.catfish.api;
 
 import lombok.Data;
 
+import java.util.List;
+
 @Data
 public class CommonPageReq<T> {
 
@@ -20,6 +22,26 @@ public class CommonPageReq<T> {
      */
     T condition;
 
+    /**
+     * 总条数统计方式，默认EXACT；键集分页不统计总条数
+     */
+    CountStrategy countStrategy;
+
+    /**
+     * 键集分页游标，传入上一页返回的nextCursor，查询该记录之后的数据
+     */
+    String afterId;
+
+    /**
+     * 键集分页排序键，目前仅支持id；与afterId任一不为空即使用键集分页
+     */
+    String sortKey;
+
+    /**
+     * 只返回这些属性，只查询其对应的列（主键始终包含）；为空时返回全部属性
+     */
+    List<String> fields;
+
     public int getCurrentPage() {
         return currentPage;
     }
@@ -43,4 +65,51 @@ public class CommonPageReq<T> {
     public void setCondition(T condition) {
         this.condition = condition;
     }
+
+    public CountStrategy getCountStrategy() {
+        return countStrategy;
+    }
+
+    public void setCountStrategy(CountStrategy countStrategy) {
+        this.countStrategy = countStrategy;
+    }
+
+    public String getAfterId() {
+        return afterId;
+    }
+
+    public void setAfterId(String afterId) {
+        this.afterId = afterId;
+    }
+
+    public String getSortKey() {
+        return sortKey;
+    }
+
+    public void setSortKey(String sortKey) {
+        this.sortKey = sortKey;
+    }
+
+    public List<String> getFields() {
+        return fields;
+    }
+
+    public void setFields(List<String> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * 是否使用键集分页（WHERE id > ? ORDER BY id LIMIT ?），查询耗时与页深无关
+     *
+     * @throws IllegalArgumentException 排序键不受支持
+     */
+    public boolean useKeyset() {
+        if (afterId == null && sortKey == null) {
+            return false;
+        }
+        if (sortKey != null && !PageCursor.SORT_KEY_ID.equals(sortKey)) {
+            throw new IllegalArgumentException("Unsupported keyset sort key: " + sortKey);
+        }
+        return true;
+    }
 }
@@ -1,11 +1,31 @@
 package cloud.catfish.api;
 
+import cloud.catfish.common.json.CommonResultSerializer;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.util.EnumMap;
+import java.util.Map;
 
 /**
  * 通用返回结果封装类
+ * 由CommonResultSerializer直接写出，ResultCode的提示信息使用预编码的字符串；
+ * 不带数据的结果（如success(null)）返回每个ResultCode共享的不可修改实例
  * Created by macro on 2019/4/19.
  */
+@JsonSerialize(using = CommonResultSerializer.class)
 public class CommonResult<T> {
+    /**
+     * 每个ResultCode不带数据的共享结果
+     */
+    private static final Map<ResultCode, CommonResult<?>> EMPTY_RESULTS = new EnumMap<>(ResultCode.class);
+
+    static {
+        for (ResultCode resultCode : ResultCode.values()) {
+            EMPTY_RESULTS.put(resultCode, new Immutable<>(resultCode));
+        }
+    }
+
     /**
      * 状态码
      */
@@ -18,6 +38,10 @@ public class CommonResult<T> {
      * 数据封装
      */
     private T data;
+    /**
+     * code和message取自的ResultCode，自定义了code或message时为空
+     */
+    private ResultCode resultCode;
 
     protected CommonResult() {
     }
@@ -28,13 +52,29 @@ public class CommonResult<T> {
         this.data = data;
     }
 
+    protected CommonResult(ResultCode resultCode, T data) {
+        this(resultCode.getCode(), resultCode.getMessage(), data);
+        this.resultCode = resultCode;
+    }
+
+    /**
+     * 按ResultCode创建结果，不带数据时返回共享实例
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> CommonResult<T> of(ResultCode resultCode, T data) {
+        if (data == null) {
+            return (CommonResult<T>) EMPTY_RESULTS.get(resultCode);
+        }
+        return new CommonResult<T>(resultCode, data);
+    }
+
     /**
      * 成功返回结果
      *
      * @param data 获取的数据
      */
     public static <T> CommonResult<T> success(T data) {
-        return new CommonResult<T>(ResultCode.SUCCESS.getCode(), ResultCode.SUCCESS.getMessage(), data);
+        return of(ResultCode.SUCCESS, data);
     }
 
     /**
@@ -52,6 +92,9 @@ public class CommonResult<T> {
      * @param errorCode 错误码
      */
     public static <T> CommonResult<T> failed(IErrorCode errorCode) {
+        if (errorCode instanceof ResultCode) {
+            return of((ResultCode) errorCode, null);
+        }
         return new CommonResult<T>(errorCode.getCode(), errorCode.getMessage(), null);
     }
 
@@ -98,14 +141,14 @@ public class CommonResult<T> {
      * 未登录返回结果
      */
     public static <T> CommonResult<T> unauthorized(T data) {
-        return new CommonResult<T>(ResultCode.UNAUTHORIZED.getCode(), ResultCode.UNAUTHORIZED.getMessage(), data);
+        return of(ResultCode.UNAUTHORIZED, data);
     }
 
     /**
      * 未授权返回结果
      */
     public static <T> CommonResult<T> forbidden(T data) {
-        return new CommonResult<T>(ResultCode.FORBIDDEN.getCode(), ResultCode.FORBIDDEN.getMessage(), data);
+        return of(ResultCode.FORBIDDEN, data);
     }
 
     public long getCode() {
@@ -114,6 +157,7 @@ public class CommonResult<T> {
 
     public void setCode(long code) {
         this.code = code;
+        this.resultCode = null;
     }
 
     public String getMessage() {
@@ -122,6 +166,7 @@ public class CommonResult<T> {
 
     public void setMessage(String message) {
         this.message = message;
+        this.resultCode = null;
     }
 
     public T getData() {
@@ -131,4 +176,37 @@ public class CommonResult<T> {
     public void setData(T data) {
         this.data = data;
     }
+
+    /**
+     * @return code和message取自的ResultCode，自定义了code或message时为空
+     */
+    @JsonIgnore
+    public ResultCode getResultCode() {
+        return resultCode;
+    }
+
+    /**
+     * 不带数据的共享结果，不可修改
+     */
+    private static final class Immutable<T> extends CommonResult<T> {
+
+        Immutable(ResultCode resultCode) {
+            super(resultCode, null);
+        }
+
+        @Override
+        public void setCode(long code) {
+            throw new UnsupportedOperationException("Shared result of " + getResultCode() + " cannot be modified");
+        }
+
+        @Override
+        public void setMessage(String message) {
+            throw new UnsupportedOperationException("Shared result of " + getResultCode() + " cannot be modified");
+        }
+
+        @Override
+        public void setData(T data) {
+            throw new UnsupportedOperationException("Shared result of " + getResultCode() + " cannot be modified");
+        }
+    }
 }
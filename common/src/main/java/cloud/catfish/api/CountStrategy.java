@@ -0,0 +1,23 @@
+package cloud.catfish.api;
+
+/**
+ * 分页总数统计方式
+ */
+public enum CountStrategy {
+    /**
+     * 每次执行COUNT(*)，总数准确
+     */
+    EXACT,
+    /**
+     * 按查询条件缓存COUNT(*)结果，有效期内不再统计，总数可能滞后
+     */
+    CACHED,
+    /**
+     * 使用数据库估算值：无条件时取information_schema中的表行数，有条件时取EXPLAIN的扫描行数
+     */
+    ESTIMATED,
+    /**
+     * 不统计总数，多取一条（LIMIT n+1）判断是否有下一页
+     */
+    NONE
+}
@@ -0,0 +1,88 @@
+package cloud.catfish.api;
+
+import com.github.pagehelper.Page;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * 深分页延迟关联
+ * LIMIT offset,size 会读取并丢弃offset之前的整行数据；偏移量超过阈值时改为两步查询：
+ * 先按条件分页只查询主键（可走覆盖索引），再按 id IN (...) 取整行，并按主键查询的顺序返回
+ *
+ * 主键查询在PageHelper分页参数设置后执行，分页及COUNT(*)与普通查询相同，可直接作为{@link PagedQuery}的数据查询
+ */
+public final class DeferredJoin {
+
+    private static volatile long offsetThreshold = 0;
+
+    private DeferredJoin() {
+    }
+
+    /**
+     * 设置启用延迟关联的偏移量阈值
+     *
+     * @param threshold 偏移量（(页码 - 1) * 每页数量）达到该值时使用延迟关联，不大于0时关闭
+     */
+    public static void useOffsetThreshold(long threshold) {
+        offsetThreshold = threshold;
+    }
+
+    /**
+     * @return 启用延迟关联的偏移量阈值，不大于0时已关闭
+     */
+    public static long getOffsetThreshold() {
+        return offsetThreshold;
+    }
+
+    /**
+     * 该分页请求是否使用延迟关联
+     *
+     * @param req 页码分页请求
+     */
+    public static boolean applies(CommonPageReq<?> req) {
+        long threshold = offsetThreshold;
+        long offset = (long) (Math.max(req.getCurrentPage(), 1) - 1) * req.getPageSize();
+        return threshold > 0 && offset >= threshold;
+    }
+
+    /**
+     * 先查询主键再取整行
+     *
+     * @param idQuery  按条件分页查询主键，在PageHelper分页参数设置后调用
+     * @param rowQuery 按主键查询整行，不分页
+     * @param idGetter 主键取值方法
+     * @return 按主键查询顺序排列的数据；主键查询经PageHelper分页时，返回带相同分页信息的Page
+     */
+    public static <T> List<T> query(Supplier<List<Long>> idQuery, Function<List<Long>, List<T>> rowQuery,
+                                    ToLongFunction<T> idGetter) {
+        List<Long> ids = idQuery.get();
+        List<T> rows = ids.isEmpty() ? new ArrayList<>() : rowQuery.apply(ids);
+        Map<Long, T> rowsById = new HashMap<>(rows.size() * 2);
+        for (T row : rows) {
+            rowsById.put(idGetter.applyAsLong(row), row);
+        }
+        List<T> ordered;
+        if (ids instanceof Page) {
+            Page<Long> idPage = (Page<Long>) ids;
+            Page<T> page = new Page<>(idPage.getPageNum(), idPage.getPageSize(), idPage.isCount());
+            page.setTotal(idPage.getTotal());
+            ordered = page;
+        } else {
+            ordered = new ArrayList<>(ids.size());
+        }
+        for (Long id : ids) {
+            // 两次查询之间被删除的行不再返回
+            T row = rowsById.get(id);
+            if (row != null) {
+                ordered.add(row);
+            }
+        }
+        return ordered;
+    }
+}
@@ -0,0 +1,163 @@
+package cloud.catfish.api;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 分页总数缓存
+ * 以实体类型加规范化后的查询条件为键缓存COUNT(*)结果，规范化按属性名排序并忽略空值，
+ * 字段顺序不同或多传空字段的相同条件命中同一缓存项
+ *
+ * 共享缓存默认有效期60000毫秒、最多缓存10000个条件（超出时清空），
+ * 可通过{@link #useSettings(long, int)}调整，admin模块由page.count-cache-ttl-ms和page.count-cache-size配置
+ * 生成的Service在新增、批量新增、更新和删除后调用{@link #invalidate(Class)}，总数变化后不返回旧值；
+ * 每个实体类型有一个失效代数，统计前取得的代数在写入时已变化则丢弃该总数，
+ * 与统计同时进行的失效不会被统计完成后的写入覆盖
+ */
+public class PageCountCache {
+
+    public static final long DEFAULT_TTL_MILLIS = 60_000L;
+    public static final int DEFAULT_MAX_SIZE = 10_000;
+
+    private static volatile PageCountCache instance = new PageCountCache(DEFAULT_TTL_MILLIS, DEFAULT_MAX_SIZE);
+
+    private static final ObjectMapper NORMALIZER = JsonMapper.builder()
+            .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+            .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS)
+            .serializationInclusion(JsonInclude.Include.NON_NULL)
+            .build();
+
+    private final long ttlMillis;
+    private final int maxSize;
+    private final Map<String, Entry> totals = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    /**
+     * @param ttlMillis 缓存有效期（毫秒）
+     * @param maxSize   最多缓存的条件数
+     */
+    public PageCountCache(long ttlMillis, int maxSize) {
+        if (ttlMillis <= 0 || maxSize <= 0) {
+            throw new IllegalArgumentException("TTL and size of the count cache must be positive");
+        }
+        this.ttlMillis = ttlMillis;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * 设置共享缓存的有效期和容量，已缓存的总数随旧缓存丢弃
+     *
+     * @param ttlMillis 缓存有效期（毫秒）
+     * @param maxSize   最多缓存的条件数
+     */
+    public static void useSettings(long ttlMillis, int maxSize) {
+        instance = new PageCountCache(ttlMillis, maxSize);
+    }
+
+    /**
+     * 共享缓存
+     */
+    public static PageCountCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * 生成缓存键
+     *
+     * @param type      实体类型，区分不同的表
+     * @param condition 查询条件，可为空
+     */
+    public static String key(Class<?> type, Object condition) {
+        try {
+            return type.getName() + ':' + NORMALIZER.writeValueAsString(condition);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot normalize query condition of " + type.getName(), e);
+        }
+    }
+
+    /**
+     * 查询缓存的总数
+     *
+     * @return 有效期内的总数，未缓存或已过期时为空
+     */
+    public Long get(String key) {
+        Entry entry = totals.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt < System.currentTimeMillis()) {
+            totals.remove(key, entry);
+            return null;
+        }
+        return entry.total;
+    }
+
+    /**
+     * 取得实体类型当前的失效代数，在统计总数之前调用
+     *
+     * @param type 实体类型
+     * @return 失效代数，传给{@link #put(String, long, Class, long)}
+     */
+    public long generation(Class<?> type) {
+        return generations.computeIfAbsent(type.getName(), name -> new AtomicLong()).get();
+    }
+
+    /**
+     * 缓存总数，统计期间该类型已失效时不缓存
+     *
+     * @param key        缓存键
+     * @param total      总数
+     * @param type       实体类型
+     * @param generation 统计前取得的失效代数
+     */
+    public void put(String key, long total, Class<?> type, long generation) {
+        AtomicLong current = generations.computeIfAbsent(type.getName(), name -> new AtomicLong());
+        if (current.get() != generation) {
+            return;
+        }
+        if (totals.size() >= maxSize) {
+            // 先清理过期项，仍然已满则整体清空，避免条件组合过多时无限增长
+            long now = System.currentTimeMillis();
+            totals.values().removeIf(entry -> entry.expiresAt < now);
+            if (totals.size() >= maxSize) {
+                totals.clear();
+            }
+        }
+        Entry entry = new Entry(total, System.currentTimeMillis() + ttlMillis);
+        totals.put(key, entry);
+        // 写入后再检查：失效先递增代数再清理，两者交错时总有一方移除这个过期总数
+        if (current.get() != generation) {
+            totals.remove(key, entry);
+        }
+    }
+
+    /**
+     * 使缓存失效，数据变更后调用
+     *
+     * @param type 实体类型，该类型的所有条件均失效
+     */
+    public void invalidate(Class<?> type) {
+        generations.computeIfAbsent(type.getName(), name -> new AtomicLong()).incrementAndGet();
+        String prefix = type.getName() + ':';
+        totals.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    private static final class Entry {
+        final long total;
+        final long expiresAt;
+
+        Entry(long total, long expiresAt) {
+            this.total = total;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
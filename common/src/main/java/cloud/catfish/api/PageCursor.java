@@ -0,0 +1,44 @@
+package cloud.catfish.api;
+
+import cloud.catfish.common.util.SnowflakeIdCodec;
+
+/**
+ * 键集分页游标
+ * 游标为上一页最后一条记录主键的BASE62编码，对客户端不透明，原样回传即可
+ */
+public final class PageCursor {
+
+    /**
+     * 支持的排序键：Snowflake ID随时间递增，按主键排序即按创建时间排序
+     */
+    public static final String SORT_KEY_ID = "id";
+
+    private static final SnowflakeIdCodec CODEC = SnowflakeIdCodec.BASE62;
+
+    private PageCursor() {
+    }
+
+    /**
+     * 生成游标
+     *
+     * @param id 本页最后一条记录的主键
+     */
+    public static String encode(long id) {
+        return CODEC.encode(id);
+    }
+
+    /**
+     * 解析游标
+     *
+     * @param cursor 上一页返回的nextCursor
+     * @return 上一页最后一条记录的主键
+     * @throws IllegalArgumentException 游标格式不正确
+     */
+    public static long decode(String cursor) {
+        try {
+            return CODEC.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page cursor: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package cloud.catfish.api;
+
+import com.github.pagehelper.Page;
+import com.github.pagehelper.PageHelper;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 按统计方式执行PageHelper分页查询
+ * 数据查询由调用方提供，本类负责在查询前设置分页参数，并按请求的{@link CountStrategy}
+ * 决定是否执行COUNT(*)及总数的来源
+ *
+ * 配置{@link ParallelPageExecutor}后，精确统计的COUNT(*)与数据查询并行执行；
+ * 在事务中或并行许可用尽时仍串行执行
+ */
+public final class PagedQuery {
+
+    private static volatile ParallelPageExecutor parallelExecutor;
+
+    private PagedQuery() {
+    }
+
+    /**
+     * 启用或关闭COUNT(*)与数据查询的并行执行
+     *
+     * @param executor 并行执行器，为空时关闭
+     */
+    public static void useParallelCount(ParallelPageExecutor executor) {
+        parallelExecutor = executor;
+    }
+
+    /**
+     * 执行页码分页查询
+     *
+     * @param req       分页请求，未指定统计方式时为EXACT
+     * @param type      实体类型，用作总数缓存的命名空间
+     * @param query     数据查询，在分页参数设置后调用
+     * @param counter   总数统计（COUNT(*)），仅并行执行时调用，串行时由PageHelper统计
+     * @param estimator 总数估算，仅ESTIMATED时调用
+     * @return 分页结果
+     */
+    public static <T> CommonPage<T> page(CommonPageReq<?> req, Class<T> type, Supplier<List<T>> query,
+                                         LongSupplier counter, LongSupplier estimator) {
+        int pageNum = req.getCurrentPage();
+        int pageSize = req.getPageSize();
+        CountStrategy strategy = req.getCountStrategy() == null ? CountStrategy.EXACT : req.getCountStrategy();
+        switch (strategy) {
+            case CACHED: {
+                PageCountCache cache = PageCountCache.getInstance();
+                String key = PageCountCache.key(type, req.getCondition());
+                Long total = cache.get(key);
+                if (total == null) {
+                    long generation = cache.generation(type);
+                    CommonPage<T> result = exact(pageNum, pageSize, query, counter);
+                    cache.put(key, result.getTotal(), type, generation);
+                    result.setCountStrategy(CountStrategy.CACHED);
+                    return result;
+                }
+                PageHelper.startPage(pageNum, pageSize, false);
+                return CommonPage.of(query.get(), pageNum, pageSize, total, CountStrategy.CACHED);
+            }
+            case ESTIMATED: {
+                long total = estimator.getAsLong();
+                PageHelper.startPage(pageNum, pageSize, false);
+                return CommonPage.of(query.get(), pageNum, pageSize, total, CountStrategy.ESTIMATED);
+            }
+            case NONE: {
+                // 多取一条判断是否有下一页，不执行COUNT(*)
+                PageHelper.offsetPage((Math.max(pageNum, 1) - 1) * pageSize, pageSize + 1, false);
+                List<T> rows = query.get();
+                boolean hasNext = rows.size() > pageSize;
+                CommonPage<T> result = CommonPage.of(hasNext ? rows.subList(0, pageSize) : rows, pageNum, pageSize, null, CountStrategy.NONE);
+                result.setHasNext(hasNext);
+                return result;
+            }
+            default:
+                return exact(pageNum, pageSize, query, counter);
+        }
+    }
+
+    private static <T> CommonPage<T> exact(int pageNum, int pageSize, Supplier<List<T>> query, LongSupplier counter) {
+        ParallelPageExecutor executor = parallelExecutor;
+        // 事务内的查询必须使用事务连接，不能分到其他线程
+        if (executor != null && !TransactionSynchronizationManager.isActualTransactionActive()) {
+            CommonPage<T> result = executor.page(pageNum, pageSize, query, counter);
+            if (result != null) {
+                return result;
+            }
+        }
+        PageHelper.startPage(pageNum, pageSize);
+        List<T> list = query.get();
+        long total = list instanceof Page ? ((Page<T>) list).getTotal() : list.size();
+        return CommonPage.of(list, pageNum, pageSize, total, CountStrategy.EXACT);
+    }
+
+    /**
+     * 由EXPLAIN结果估算匹配行数：各表扫描行数乘以过滤比例
+     *
+     * @param plan EXPLAIN返回的执行计划
+     * @return 估算行数
+     */
+    public static long estimateFromExplain(List<Map<String, Object>> plan) {
+        long estimate = 0;
+        for (Map<String, Object> step : plan) {
+            Number rows = column(step, "rows");
+            Number filtered = column(step, "filtered");
+            if (rows != null) {
+                estimate = Math.max(estimate, filtered == null
+                        ? rows.longValue()
+                        : Math.round(rows.doubleValue() * filtered.doubleValue() / 100));
+            }
+        }
+        return estimate;
+    }
+
+    private static Number column(Map<String, Object> step, String name) {
+        for (Map.Entry<String, Object> entry : step.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(name) && entry.getValue() instanceof Number) {
+                return (Number) entry.getValue();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,163 @@
+package cloud.catfish.api;
+
+import com.github.pagehelper.PageHelper;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 并行统计执行器
+ * 精确统计总数时，COUNT(*)在后台线程执行，数据查询在调用线程执行，两者各自从连接池取连接，
+ * 页面耗时约为两者的最大值而不是之和
+ *
+ * 连接池安全：每个并行查询比串行多占一个连接，同时进行的并行查询数由许可数限制，
+ * 取不到许可时立即退回串行执行，不排队等待，因此额外占用的连接数不超过许可数。
+ * 许可在COUNT(*)执行结束时才释放：中断不能终止正在执行的JDBC查询，数据查询失败或等待被中断后，
+ * 仍在执行的统计查询继续占用连接和许可。
+ * 按{@link #maxConcurrentFor(int)}取连接池最大连接数的四分之一（Druid max-active 20 时为5）
+ *
+ * 后台线程在Java 21及以上使用虚拟线程，否则使用守护线程
+ */
+public class ParallelPageExecutor implements AutoCloseable {
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final int maxConcurrent;
+
+    /**
+     * @param maxConcurrent 最多同时进行的并行查询数，即额外占用的连接数上限
+     */
+    public ParallelPageExecutor(int maxConcurrent) {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("Max concurrent parallel searches must be positive, got " + maxConcurrent);
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.permits = new Semaphore(maxConcurrent);
+        this.executor = createExecutor();
+    }
+
+    /**
+     * 按连接池大小计算并行查询数上限：最大连接数的四分之一，至少为1
+     *
+     * @param poolMaxActive 连接池最大连接数
+     */
+    public static int maxConcurrentFor(int poolMaxActive) {
+        return Math.max(1, poolMaxActive / 4);
+    }
+
+    /**
+     * 并行执行数据查询和总数统计
+     *
+     * @param pageNum  当前页码
+     * @param pageSize 每页数量
+     * @param query    数据查询，在调用线程执行，调用前已设置不统计总数的分页参数
+     * @param counter  总数统计，在后台线程执行
+     * @return 分页结果，许可用尽时为空，由调用方串行执行
+     */
+    <T> CommonPage<T> page(int pageNum, int pageSize, Supplier<List<T>> query, LongSupplier counter) {
+        if (!permits.tryAcquire()) {
+            return null;
+        }
+        // 统计任务开始执行后由任务释放许可，未开始即被取消时由调用方释放
+        AtomicBoolean started = new AtomicBoolean();
+        Future<Long> total;
+        try {
+            total = executor.submit(() -> {
+                if (!started.compareAndSet(false, true)) {
+                    // 调用方已取消并释放了许可
+                    return 0L;
+                }
+                try {
+                    return counter.getAsLong();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RuntimeException | Error e) {
+            permits.release();
+            throw e;
+        }
+        List<T> list;
+        try {
+            PageHelper.startPage(pageNum, pageSize, false);
+            list = query.get();
+        } catch (RuntimeException | Error e) {
+            cancel(total, started);
+            throw e;
+        }
+        return CommonPage.of(list, pageNum, pageSize, await(total, started), CountStrategy.EXACT);
+    }
+
+    private void cancel(Future<Long> total, AtomicBoolean started) {
+        total.cancel(true);
+        if (started.compareAndSet(false, true)) {
+            permits.release();
+        }
+    }
+
+    private long await(Future<Long> total, AtomicBoolean started) {
+        try {
+            return total.get();
+        } catch (InterruptedException e) {
+            cancel(total, started);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the count query", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Count query failed", cause);
+        }
+    }
+
+    /**
+     * @return 最多同时进行的并行查询数
+     */
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    /**
+     * @return 当前占用许可的并行查询数，包括调用方已返回但仍在执行的统计查询
+     */
+    public int getActive() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private static ExecutorService createExecutor() {
+        try {
+            // Java 21+：每个统计查询一个虚拟线程
+            return (ExecutorService) MethodHandles.publicLookup()
+                    .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class))
+                    .invoke();
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            AtomicInteger threadCount = new AtomicInteger();
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "page-count-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot create the count query executor", e);
+        }
+    }
+}
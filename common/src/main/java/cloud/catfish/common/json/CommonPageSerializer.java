@@ -0,0 +1,99 @@
+package cloud.catfish.common.json;
+
+import cloud.catfish.api.CommonPage;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes a {@link CommonPage} field by field and streams its list straight from the
+ * wrapped query result, looking the element serializer up once per element class
+ * instead of once per element. Null fields follow the mapper's default inclusion.
+ *
+ * When the page carries the selected {@code fields} of a column projection, list elements
+ * are written through a filtering generator that keeps only those properties, so the
+ * columns that were not selected do not show up as nulls.
+ */
+public class CommonPageSerializer extends StdSerializer<CommonPage<?>> {
+
+    @SuppressWarnings("unchecked")
+    public CommonPageSerializer() {
+        super((Class<CommonPage<?>>) (Class<?>) CommonPage.class);
+    }
+
+    @Override
+    public void serialize(CommonPage<?> page, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        boolean writeNulls = writesNulls(provider);
+        gen.writeStartObject(page);
+        writeNumber(gen, "pageNum", page.getPageNum(), writeNulls);
+        writeNumber(gen, "pageSize", page.getPageSize(), writeNulls);
+        writeNumber(gen, "totalPage", page.getTotalPage(), writeNulls);
+        if (page.getTotal() != null) {
+            gen.writeNumberField("total", page.getTotal());
+        } else if (writeNulls) {
+            gen.writeNullField("total");
+        }
+        if (page.getList() != null) {
+            gen.writeFieldName("list");
+            if (page.getFields() != null) {
+                writeList(page.getList(), PropertyFilter.filter(gen, page.getFields()), provider);
+            } else {
+                writeList(page.getList(), gen, provider);
+            }
+        } else if (writeNulls) {
+            gen.writeNullField("list");
+        }
+        if (page.getNextCursor() != null) {
+            gen.writeStringField("nextCursor", page.getNextCursor());
+        } else if (writeNulls) {
+            gen.writeNullField("nextCursor");
+        }
+        if (page.getHasNext() != null) {
+            gen.writeBooleanField("hasNext", page.getHasNext());
+        } else if (writeNulls) {
+            gen.writeNullField("hasNext");
+        }
+        if (page.getCountStrategy() != null) {
+            gen.writeStringField("countStrategy", page.getCountStrategy().name());
+        } else if (writeNulls) {
+            gen.writeNullField("countStrategy");
+        }
+        gen.writeEndObject();
+    }
+
+    private static void writeList(List<?> list, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartArray(list, list.size());
+        Class<?> lastClass = null;
+        JsonSerializer<Object> lastSerializer = null;
+        for (Object element : list) {
+            if (element == null) {
+                provider.defaultSerializeNull(gen);
+                continue;
+            }
+            if (element.getClass() != lastClass) {
+                lastClass = element.getClass();
+                lastSerializer = provider.findTypedValueSerializer(lastClass, true, null);
+            }
+            lastSerializer.serialize(element, gen, provider);
+        }
+        gen.writeEndArray();
+    }
+
+    private static void writeNumber(JsonGenerator gen, String name, Integer value, boolean writeNulls) throws IOException {
+        if (value != null) {
+            gen.writeNumberField(name, value);
+        } else if (writeNulls) {
+            gen.writeNullField(name);
+        }
+    }
+
+    private static boolean writesNulls(SerializerProvider provider) {
+        JsonInclude.Include inclusion = provider.getConfig().getDefaultPropertyInclusion(CommonPage.class).getValueInclusion();
+        return inclusion == JsonInclude.Include.ALWAYS || inclusion == JsonInclude.Include.USE_DEFAULTS;
+    }
+}
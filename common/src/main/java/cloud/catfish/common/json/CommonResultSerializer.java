@@ -0,0 +1,75 @@
+package cloud.catfish.common.json;
+
+import cloud.catfish.api.CommonResult;
+import cloud.catfish.api.ResultCode;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Writes the {@link CommonResult} envelope directly instead of introspecting it as a bean.
+ *
+ * <p>Field names and the message of every {@link ResultCode} are {@link SerializedString}s,
+ * which keep their quoted UTF-8 bytes after the first write, so a result built from a
+ * ResultCode copies its message instead of escaping and encoding it again. Results whose
+ * message was customized write it as a plain string. A null message or data follows the
+ * mapper's default inclusion, like a bean property would.</p>
+ */
+public class CommonResultSerializer extends StdSerializer<CommonResult<?>> {
+
+    private static final SerializedString CODE = new SerializedString("code");
+    private static final SerializedString MESSAGE = new SerializedString("message");
+    private static final SerializedString DATA = new SerializedString("data");
+
+    private static final Map<ResultCode, SerializableString> MESSAGES = new EnumMap<>(ResultCode.class);
+
+    static {
+        for (ResultCode resultCode : ResultCode.values()) {
+            MESSAGES.put(resultCode, new SerializedString(resultCode.getMessage()));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public CommonResultSerializer() {
+        super((Class<CommonResult<?>>) (Class<?>) CommonResult.class);
+    }
+
+    @Override
+    public void serialize(CommonResult<?> result, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(result);
+        gen.writeFieldName(CODE);
+        gen.writeNumber(result.getCode());
+        ResultCode resultCode = result.getResultCode();
+        if (resultCode != null) {
+            gen.writeFieldName(MESSAGE);
+            gen.writeString(MESSAGES.get(resultCode));
+        } else if (result.getMessage() != null) {
+            gen.writeFieldName(MESSAGE);
+            gen.writeString(result.getMessage());
+        } else if (writesNulls(provider)) {
+            gen.writeFieldName(MESSAGE);
+            gen.writeNull();
+        }
+        Object data = result.getData();
+        if (data != null) {
+            gen.writeFieldName(DATA);
+            provider.findTypedValueSerializer(data.getClass(), true, null).serialize(data, gen, provider);
+        } else if (writesNulls(provider)) {
+            gen.writeFieldName(DATA);
+            gen.writeNull();
+        }
+        gen.writeEndObject();
+    }
+
+    private static boolean writesNulls(SerializerProvider provider) {
+        JsonInclude.Include inclusion = provider.getConfig().getDefaultPropertyInclusion(CommonResult.class).getValueInclusion();
+        return inclusion == JsonInclude.Include.ALWAYS || inclusion == JsonInclude.Include.USE_DEFAULTS;
+    }
+}
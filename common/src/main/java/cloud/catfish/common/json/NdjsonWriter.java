@@ -0,0 +1,109 @@
+package cloud.catfish.common.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Writes rows as newline-delimited JSON, one object per line, straight to an output stream.
+ *
+ * <p>Nothing is buffered beyond the generator's own buffer: each row is serialized as it
+ * arrives and the stream is flushed every {@code flushEvery} rows, so memory stays flat
+ * however many rows are written. Rows can be fed from a MyBatis {@code Cursor} through
+ * {@link #accept(Object)}, which reports write failures as {@link UncheckedIOException}.</p>
+ *
+ * <p>Closing the writer flushes the remaining rows but leaves the output stream open.</p>
+ */
+public class NdjsonWriter implements Consumer<Object>, Closeable {
+
+    /**
+     * Media type of newline-delimited JSON
+     */
+    public static final String MEDIA_TYPE = "application/x-ndjson";
+
+    private final JsonGenerator gen;
+    private final ObjectWriter writer;
+    private final int flushEvery;
+    private long count;
+
+    /**
+     * Create a writer that writes every property of each row
+     *
+     * @param mapper     The mapper whose serializers and settings are used
+     * @param out        The stream to write to
+     * @param flushEvery How many rows to write between flushes
+     */
+    public NdjsonWriter(ObjectMapper mapper, OutputStream out, int flushEvery) throws IOException {
+        this(mapper, out, flushEvery, null);
+    }
+
+    /**
+     * Create a writer
+     *
+     * @param mapper     The mapper whose serializers and settings are used
+     * @param out        The stream to write to
+     * @param flushEvery How many rows to write between flushes
+     * @param fields     The properties to write of each row, all if null
+     */
+    public NdjsonWriter(ObjectMapper mapper, OutputStream out, int flushEvery, Set<String> fields) throws IOException {
+        if (flushEvery <= 0) {
+            throw new IllegalArgumentException("FlushEvery must be positive, got " + flushEvery);
+        }
+        JsonGenerator generator = mapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Rows are separated by the newline written after each of them
+        generator.setRootValueSeparator(null);
+        this.gen = fields == null ? generator : PropertyFilter.filter(generator, fields);
+        this.writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.flushEvery = flushEvery;
+    }
+
+    /**
+     * Write one row as a line
+     *
+     * @param row The row
+     * @throws IOException if the stream cannot be written, e.g. the client went away
+     */
+    public void write(Object row) throws IOException {
+        writer.writeValue(gen, row);
+        gen.writeRaw('\n');
+        if (++count % flushEvery == 0) {
+            gen.flush();
+        }
+    }
+
+    /**
+     * Write one row as a line
+     *
+     * @param row The row
+     * @throws UncheckedIOException if the stream cannot be written
+     */
+    @Override
+    public void accept(Object row) {
+        try {
+            write(row);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * @return The number of rows written
+     */
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        gen.close();
+    }
+}
@@ -0,0 +1,58 @@
+package cloud.catfish.common.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.filter.FilteringGeneratorDelegate;
+import com.fasterxml.jackson.core.filter.TokenFilter;
+
+import java.util.Set;
+
+/**
+ * Keeps the given top-level properties of every value written, with everything below them.
+ * Used to leave out the properties of a column projection that were not selected.
+ */
+final class PropertyFilter extends TokenFilter {
+
+    private final Set<String> properties;
+
+    private PropertyFilter(Set<String> properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Wrap a generator so that the values written through it, or the elements of an array
+     * written through it, keep only the given properties
+     *
+     * @param gen        The generator to write to
+     * @param properties The properties to keep
+     * @return The filtering generator
+     */
+    static JsonGenerator filter(JsonGenerator gen, Set<String> properties) {
+        return new FilteringGeneratorDelegate(gen, new PropertyFilter(properties),
+                TokenFilter.Inclusion.INCLUDE_ALL_AND_PATH, true);
+    }
+
+    @Override
+    public TokenFilter includeRootValue(int index) {
+        return this;
+    }
+
+    @Override
+    public TokenFilter includeElement(int index) {
+        return this;
+    }
+
+    @Override
+    public TokenFilter includeProperty(String name) {
+        return properties.contains(name) ? TokenFilter.INCLUDE_ALL : null;
+    }
+
+    @Override
+    public boolean includeEmptyArray(boolean contentsFiltered) {
+        return true;
+    }
+
+    @Override
+    public boolean includeEmptyObject(boolean contentsFiltered) {
+        return true;
+    }
+}
@@ -0,0 +1,55 @@
+package cloud.catfish.common.json;
+
+import cloud.catfish.common.util.SnowflakeIdCodec;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Reads a Long Snowflake ID written by {@link SnowflakeIdSerializer}, decoding straight
+ * from the parser's character buffer. Plain JSON numbers are accepted as well.
+ */
+public class SnowflakeIdDeserializer extends StdDeserializer<Long> implements ContextualDeserializer {
+
+    private final SnowflakeIdCodec codec;
+
+    public SnowflakeIdDeserializer() {
+        this(SnowflakeIdCodec.BASE62);
+    }
+
+    public SnowflakeIdDeserializer(SnowflakeIdCodec codec) {
+        super(Long.class);
+        this.codec = codec;
+    }
+
+    @Override
+    public JsonDeserializer<?> createContextual(DeserializationContext ctxt, BeanProperty property) {
+        SnowflakeIdFormat format = property == null ? null : property.getAnnotation(SnowflakeIdFormat.class);
+        if (format == null || format.value() == codec) {
+            return this;
+        }
+        return new SnowflakeIdDeserializer(format.value());
+    }
+
+    @Override
+    public Long deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            return p.getLongValue();
+        }
+        if (token != JsonToken.VALUE_STRING) {
+            return (Long) ctxt.handleUnexpectedToken(Long.class, p);
+        }
+        try {
+            return codec.decode(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+        } catch (IllegalArgumentException ex) {
+            return (Long) ctxt.handleWeirdStringValue(Long.class, p.getText(), ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package cloud.catfish.common.json;
+
+import cloud.catfish.common.util.SnowflakeIdCodec;
+import com.fasterxml.jackson.annotation.JacksonAnnotationsInside;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Serialize a Long Snowflake ID as a fixed-width string and read it back
+ *
+ * <pre>
+ * &#64;SnowflakeIdFormat
+ * private Long id;
+ * </pre>
+ *
+ * Numbers are still accepted when reading, so clients can migrate gradually.
+ */
+@Target({ElementType.FIELD, ElementType.METHOD, ElementType.PARAMETER, ElementType.ANNOTATION_TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@JacksonAnnotationsInside
+@JsonSerialize(using = SnowflakeIdSerializer.class)
+@JsonDeserialize(using = SnowflakeIdDeserializer.class)
+public @interface SnowflakeIdFormat {
+
+    /**
+     * @return The codec used for the string form
+     */
+    SnowflakeIdCodec value() default SnowflakeIdCodec.BASE62;
+}
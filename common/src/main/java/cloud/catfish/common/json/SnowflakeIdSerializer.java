@@ -0,0 +1,47 @@
+package cloud.catfish.common.json;
+
+import cloud.catfish.common.util.SnowflakeIdCodec;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes a Long Snowflake ID as a fixed-width string, see {@link SnowflakeIdFormat}.
+ * The characters are encoded into a per-thread buffer, so no String is created.
+ */
+public class SnowflakeIdSerializer extends StdSerializer<Long> implements ContextualSerializer {
+
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[SnowflakeIdCodec.MAX_WIDTH]);
+
+    private final SnowflakeIdCodec codec;
+
+    public SnowflakeIdSerializer() {
+        this(SnowflakeIdCodec.BASE62);
+    }
+
+    public SnowflakeIdSerializer(SnowflakeIdCodec codec) {
+        super(Long.class);
+        this.codec = codec;
+    }
+
+    @Override
+    public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property) {
+        SnowflakeIdFormat format = property == null ? null : property.getAnnotation(SnowflakeIdFormat.class);
+        if (format == null || format.value() == codec) {
+            return this;
+        }
+        return new SnowflakeIdSerializer(format.value());
+    }
+
+    @Override
+    public void serialize(Long value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        char[] buffer = BUFFER.get();
+        codec.encode(value, buffer, 0);
+        gen.writeString(buffer, 0, codec.width());
+    }
+}
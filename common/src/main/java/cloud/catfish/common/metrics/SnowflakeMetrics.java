@@ -0,0 +1,117 @@
+package cloud.catfish.common.metrics;
+
+import cloud.catfish.common.util.Snowflake;
+import cloud.catfish.common.util.SnowflakeStats;
+import cloud.catfish.common.util.SnowflakeUtil;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Micrometer binder for Snowflake ID generation
+ *
+ * Publishes the {@link SnowflakeStats} of a set of generators, summed over all of them:
+ * - snowflake.ids.generated: IDs generated, the rate of which is the IDs per second
+ * - snowflake.sequence.exhaustion: waits for the next millisecond and the time spent waiting
+ * - snowflake.clock.rollbacks: clock regressions seen, with their outcome as a tag
+ * - snowflake.contentions: lost compare-and-set races or lock waits
+ *
+ * Meters are function-based: the generators only bump their striped counters and the
+ * registry reads them when it publishes, so metrics add nothing to the generation path.
+ * Micrometer is an optional dependency of this module; only applications using this
+ * binder need it on the classpath.
+ */
+public class SnowflakeMetrics implements MeterBinder {
+
+    private final Supplier<? extends Collection<? extends Snowflake>> generators;
+    private final Iterable<Tag> tags;
+
+    /**
+     * Create a binder for the generators of {@link SnowflakeUtil}, including those
+     * created after binding
+     *
+     * @return The binder
+     */
+    public static SnowflakeMetrics forSnowflakeUtil() {
+        return new SnowflakeMetrics(SnowflakeUtil::getGenerators, Tags.empty());
+    }
+
+    /**
+     * Create a binder for a single generator
+     *
+     * @param generator The generator
+     * @param tags      Tags added to every meter
+     */
+    public SnowflakeMetrics(Snowflake generator, Iterable<Tag> tags) {
+        this(() -> Collections.singletonList(generator), tags);
+    }
+
+    /**
+     * Create a binder for a changing set of generators
+     *
+     * @param generators Supplies the generators whenever the meters are read
+     * @param tags       Tags added to every meter
+     */
+    public SnowflakeMetrics(Supplier<? extends Collection<? extends Snowflake>> generators, Iterable<Tag> tags) {
+        this.generators = generators;
+        this.tags = tags;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("snowflake.ids.generated", this, metrics -> metrics.sum(SnowflakeStats::getGeneratedIds))
+                .description("Snowflake IDs generated")
+                .baseUnit("ids")
+                .tags(tags)
+                .register(registry);
+
+        FunctionTimer.builder("snowflake.sequence.exhaustion", this,
+                        metrics -> metrics.sum(SnowflakeStats::getSequenceExhaustions),
+                        metrics -> metrics.sum(SnowflakeStats::getSequenceExhaustionWaitNanos),
+                        TimeUnit.NANOSECONDS)
+                .description("Waits for the next millisecond after a millisecond's sequence numbers ran out")
+                .tags(tags)
+                .register(registry);
+
+        clockRollbacks(registry, "borrow", SnowflakeStats::getRollbackBorrows);
+        clockRollbacks(registry, "wait", SnowflakeStats::getRollbackWaits);
+        clockRollbacks(registry, "backup-node", SnowflakeStats::getRollbackBackupSwitches);
+        clockRollbacks(registry, "failure", SnowflakeStats::getRollbackFailures);
+
+        FunctionCounter.builder("snowflake.contentions", this, metrics -> metrics.sum(SnowflakeStats::getContentions))
+                .description("Lost compare-and-set races or lock waits while generating Snowflake IDs")
+                .tags(tags)
+                .register(registry);
+
+        Gauge.builder("snowflake.generators", this, metrics -> metrics.generators.get().size())
+                .description("Snowflake generators in use")
+                .tags(tags)
+                .register(registry);
+    }
+
+    private void clockRollbacks(MeterRegistry registry, String outcome, ToLongFunction<SnowflakeStats> count) {
+        FunctionCounter.builder("snowflake.clock.rollbacks", this, metrics -> metrics.sum(count))
+                .description("Clock regressions seen while generating Snowflake IDs, by how they were handled")
+                .tags(tags)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private long sum(ToLongFunction<SnowflakeStats> counter) {
+        long total = 0;
+        for (Snowflake generator : generators.get()) {
+            total += counter.applyAsLong(generator.getStats());
+        }
+        return total;
+    }
+}
@@ -5,6 +5,8 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Max;
 
+import java.util.List;
+
 /**
  * Base class for all RequestParam classes providing common pagination and sorting functionality.
  * 
@@ -14,6 +16,7 @@ import jakarta.validation.constraints.Max;
  *   <li><strong>page</strong> - Page number for pagination (starting from 1)</li>
  *   <li><strong>size</strong> - Number of items per page</li>
  *   <li><strong>sort</strong> - Sort field and direction specification</li>
+ *   <li><strong>fields</strong> - Properties to select, validated against the generated column whitelist</li>
  * </ul>
  * 
  * <p>All generated RequestParam classes should extend this base class to inherit
@@ -50,7 +53,16 @@ public class BaseRequestParam {
     /**
      * Sort field and direction specification.
      * Format: 'fieldName,direction' (e.g., 'id,desc' or 'username,asc')
+     * Generated services translate it through the entity's {@link SortSpec} whitelist.
      */
     @Schema(description = "Sort field and direction (e.g., 'id,desc' or 'username,asc')")
     private String sort;
-}
\ No newline at end of file
+
+    /**
+     * Properties to return, e.g. 'id,username'. Only their columns are selected, the
+     * primary key is always included; empty selects every column.
+     * Unknown properties are rejected by the generated Example's FIELD_COLUMNS whitelist.
+     */
+    @Schema(description = "Properties to return (e.g. 'id,username'), all when empty")
+    private List<String> fields;
+}
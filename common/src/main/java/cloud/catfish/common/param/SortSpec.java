@@ -0,0 +1,191 @@
+package cloud.catfish.common.param;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Whitelist of the properties an entity can be sorted by.
+ *
+ * <p>Maps every sortable property to its column and records whether the column leads an
+ * index. {@link #toOrderByClause(String)} turns a {@link BaseRequestParam#getSort() sort}
+ * string into an ORDER BY clause built only from whitelisted column names, so request
+ * content never reaches the SQL. Parsed clauses are cached per sort string, so a repeated
+ * sort costs one map lookup.</p>
+ *
+ * <p>Sorting by a column without an index makes the database sort the whole match
+ * (a filesort on MySQL); {@link UnindexedSort} decides whether such sorts are rejected,
+ * logged or allowed.</p>
+ *
+ * <p>Instances are generated per entity into the MyBatis Example class as {@code SORT_SPEC}.</p>
+ */
+public final class SortSpec {
+
+    /**
+     * What to do with a sort on a column that does not lead an index
+     */
+    public enum UnindexedSort {
+        /**
+         * Throw {@link IllegalArgumentException}
+         */
+        REJECT,
+        /**
+         * Sort anyway and log a warning, once per sort string
+         */
+        WARN,
+        /**
+         * Sort anyway
+         */
+        ALLOW
+    }
+
+    /**
+     * Maximum number of cached sort strings; further strings are parsed on every call
+     */
+    public static final int MAX_CACHED = 256;
+
+    private static final Logger log = LoggerFactory.getLogger(SortSpec.class);
+
+    private final String entity;
+    private final Map<String, Column> columns;
+    private final UnindexedSort unindexedSort;
+    private final Map<String, String> clauses = new ConcurrentHashMap<>();
+
+    private SortSpec(String entity, Map<String, Column> columns, UnindexedSort unindexedSort) {
+        this.entity = entity;
+        this.columns = Collections.unmodifiableMap(new LinkedHashMap<>(columns));
+        this.unindexedSort = unindexedSort;
+    }
+
+    /**
+     * Start a sort whitelist
+     *
+     * @param entity        The entity name, used in messages
+     * @param unindexedSort What to do with sorts on columns without an index
+     * @return The builder
+     */
+    public static Builder builder(String entity, UnindexedSort unindexedSort) {
+        return new Builder(entity, unindexedSort);
+    }
+
+    /**
+     * Translate a sort string into an ORDER BY clause
+     *
+     * @param sort 'property[,asc|desc]', the direction defaults to ascending
+     * @return The clause, e.g. 'create_time DESC', or null if the sort is blank
+     * @throws IllegalArgumentException if the property is not sortable, the direction is
+     * unknown, or the column has no index and unindexed sorts are rejected
+     */
+    public String toOrderByClause(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return null;
+        }
+        String clause = clauses.get(sort);
+        if (clause != null) {
+            return clause;
+        }
+        clause = parse(sort);
+        // Only valid sort strings reach the cache, and only up to its bound
+        if (clauses.size() < MAX_CACHED) {
+            clauses.putIfAbsent(sort, clause);
+        }
+        return clause;
+    }
+
+    /**
+     * @param property The property name
+     * @return Whether the property is whitelisted for sorting
+     */
+    public boolean isSortable(String property) {
+        return columns.containsKey(property);
+    }
+
+    /**
+     * @param property The property name
+     * @return Whether the property's column leads an index
+     */
+    public boolean isIndexed(String property) {
+        Column column = columns.get(property);
+        return column != null && column.indexed;
+    }
+
+    /**
+     * @return What this whitelist does with sorts on columns without an index
+     */
+    public UnindexedSort getUnindexedSort() {
+        return unindexedSort;
+    }
+
+    private String parse(String sort) {
+        int comma = sort.indexOf(',');
+        String property = (comma < 0 ? sort : sort.substring(0, comma)).trim();
+        String direction = comma < 0 ? "ASC" : sort.substring(comma + 1).trim().toUpperCase(Locale.ROOT);
+        Column column = columns.get(property);
+        if (column == null) {
+            throw new IllegalArgumentException(String.format("%s cannot be sorted by '%s'", entity, property));
+        }
+        if (!"ASC".equals(direction) && !"DESC".equals(direction)) {
+            throw new IllegalArgumentException("Sort direction must be 'asc' or 'desc': '" + sort + "'");
+        }
+        if (!column.indexed) {
+            if (unindexedSort == UnindexedSort.REJECT) {
+                throw new IllegalArgumentException(String.format("%s cannot be sorted by '%s': column %s has no index",
+                        entity, property, column.name));
+            }
+            if (unindexedSort == UnindexedSort.WARN) {
+                log.warn("{} sorted by '{}': column {} has no index, the database sorts every match", entity, property, column.name);
+            }
+        }
+        return column.name + " " + direction;
+    }
+
+    private static final class Column {
+        final String name;
+        final boolean indexed;
+
+        Column(String name, boolean indexed) {
+            this.name = name;
+            this.indexed = indexed;
+        }
+    }
+
+    /**
+     * Builder of a {@link SortSpec}
+     */
+    public static final class Builder {
+
+        private final String entity;
+        private final UnindexedSort unindexedSort;
+        private final Map<String, Column> columns = new LinkedHashMap<>();
+
+        private Builder(String entity, UnindexedSort unindexedSort) {
+            if (unindexedSort == null) {
+                throw new IllegalArgumentException("UnindexedSort must not be null");
+            }
+            this.entity = entity;
+            this.unindexedSort = unindexedSort;
+        }
+
+        /**
+         * Whitelist a property
+         *
+         * @param property The property name used in sort strings
+         * @param column   The column name as written into SQL
+         * @param indexed  Whether the column leads an index
+         * @return This builder
+         */
+        public Builder column(String property, String column, boolean indexed) {
+            columns.put(property, new Column(column, indexed));
+            return this;
+        }
+
+        public SortSpec build() {
+            return new SortSpec(entity, columns, unindexedSort);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package cloud.catfish.common.util;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Coarse cached millisecond clock
+ *
+ * A daemon ticker thread refreshes the current time from {@link System#currentTimeMillis()}
+ * roughly every tick, so reading the clock is a single volatile load. The value can lag the
+ * real clock by up to one tick, which is harmless for Snowflake IDs: the generator only
+ * needs a clock that advances, and it waits for the next tick when a millisecond's sequence
+ * numbers run out.
+ */
+public class CachedClockSource implements ClockSource {
+
+    private static final long DEFAULT_TICK_NANOS = 500_000L;
+    private static volatile CachedClockSource sharedInstance;
+
+    private final long tickNanos;
+    private volatile long now;
+    private volatile boolean running = true;
+
+    /**
+     * Create a cached clock ticking twice per millisecond
+     */
+    public CachedClockSource() {
+        this(DEFAULT_TICK_NANOS);
+    }
+
+    /**
+     * Create a cached clock with the given tick interval
+     *
+     * @param tickNanos Interval between refreshes in nanoseconds
+     */
+    public CachedClockSource(long tickNanos) {
+        if (tickNanos <= 0) {
+            throw new IllegalArgumentException("Tick interval must be positive, got " + tickNanos);
+        }
+        this.tickNanos = tickNanos;
+        this.now = System.currentTimeMillis();
+        Thread ticker = new Thread(this::tick, "snowflake-clock-ticker");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    /**
+     * Get the process-wide cached clock, starting its ticker on first use
+     *
+     * @return The shared cached clock
+     */
+    public static CachedClockSource getInstance() {
+        CachedClockSource instance = sharedInstance;
+        if (instance == null) {
+            synchronized (CachedClockSource.class) {
+                instance = sharedInstance;
+                if (instance == null) {
+                    instance = new CachedClockSource();
+                    sharedInstance = instance;
+                }
+            }
+        }
+        return instance;
+    }
+
+    @Override
+    public long millis() {
+        return now;
+    }
+
+    /**
+     * Stop the ticker thread. The clock keeps returning the last value afterwards.
+     */
+    public void stop() {
+        running = false;
+    }
+
+    private void tick() {
+        while (running) {
+            now = System.currentTimeMillis();
+            LockSupport.parkNanos(tickNanos);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package cloud.catfish.common.util;
+
+/**
+ * Tracks whether the clock is currently behind, so that a regression is counted in
+ * {@link SnowflakeStats} once when it starts rather than once per ID issued until the
+ * clock catches up.
+ *
+ * The engines of a {@link StripedSnowflake} share one episode as they share one clock:
+ * a regression seen by every stripe is still one regression. The episode ends when the
+ * clock reaches the highest last timestamp any engine saw it fall behind, so an engine
+ * that was idle, and whose own last timestamp is older, does not end it early.
+ */
+final class ClockRollbackEpisode {
+
+    private static final int NO_ROLLBACK = 0;
+    private static final int ROLLBACK_ABSORBED = 1;
+    private static final int ROLLBACK_FAILED = 2;
+
+    private final SnowflakeStats stats;
+    private volatile int state = NO_ROLLBACK;
+    // Timestamp the clock has to reach again to end the episode, written under this lock
+    private volatile long caughtUpAt;
+
+    ClockRollbackEpisode(SnowflakeStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * Record a regression absorbed by the given strategy
+     *
+     * @param lastTimestamp The last timestamp the clock fell behind
+     * @param strategy      The strategy absorbing it
+     */
+    void absorbed(long lastTimestamp, ClockRollbackPolicy.Strategy strategy) {
+        if (state != NO_ROLLBACK && lastTimestamp <= caughtUpAt) {
+            return;
+        }
+        synchronized (this) {
+            caughtUpAt = state == NO_ROLLBACK ? lastTimestamp : Math.max(caughtUpAt, lastTimestamp);
+            if (state != NO_ROLLBACK) {
+                return;
+            }
+            state = ROLLBACK_ABSORBED;
+        }
+        stats.clockRollbacks.increment();
+        switch (strategy) {
+            case BORROW:
+                stats.rollbackBorrows.increment();
+                break;
+            case WAIT:
+                stats.rollbackWaits.increment();
+                break;
+            default:
+                stats.rollbackBackupSwitches.increment();
+                break;
+        }
+    }
+
+    /**
+     * Record a regression that could not be absorbed, once per episode; an episode that was
+     * absorbed at first and then grew past the threshold is counted as a failure as well
+     *
+     * @param lastTimestamp The last timestamp the clock fell behind
+     */
+    void failed(long lastTimestamp) {
+        if (state == ROLLBACK_FAILED && lastTimestamp <= caughtUpAt) {
+            return;
+        }
+        int previous;
+        synchronized (this) {
+            previous = state;
+            caughtUpAt = previous == NO_ROLLBACK ? lastTimestamp : Math.max(caughtUpAt, lastTimestamp);
+            if (previous == ROLLBACK_FAILED) {
+                return;
+            }
+            state = ROLLBACK_FAILED;
+        }
+        if (previous == NO_ROLLBACK) {
+            stats.clockRollbacks.increment();
+        }
+        stats.rollbackFailures.increment();
+    }
+
+    /**
+     * End the episode, if any, once the clock has caught up with it
+     *
+     * @param currentTimestamp A timestamp at or past the caller's last timestamp
+     */
+    void caughtUp(long currentTimestamp) {
+        if (state == NO_ROLLBACK) {
+            return;
+        }
+        synchronized (this) {
+            if (currentTimestamp >= caughtUpAt) {
+                state = NO_ROLLBACK;
+            }
+        }
+    }
+}
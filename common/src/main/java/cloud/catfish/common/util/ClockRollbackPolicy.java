@@ -0,0 +1,104 @@
+package cloud.catfish.common.util;
+
+/**
+ * How a {@link Snowflake} generator reacts when the clock moves backwards
+ *
+ * Small regressions (typically NTP stepping the clock back) are absorbed by the chosen
+ * strategy; a regression larger than {@code maxRollbackMillis} always fails with an
+ * {@link IllegalStateException}, as does every regression under {@link Strategy#FAIL}.
+ */
+public final class ClockRollbackPolicy {
+
+    public enum Strategy {
+        /**
+         * Refuse to generate IDs until the clock catches up (original behaviour)
+         */
+        FAIL,
+        /**
+         * Keep issuing IDs from the last timestamp as a logical clock, borrowing the
+         * following milliseconds when its sequence numbers run out
+         */
+        BORROW,
+        /**
+         * Park the caller until the clock is back at the last timestamp
+         */
+        WAIT,
+        /**
+         * Issue IDs under the reserved backup node-ID bit (the highest node-ID bit of the
+         * layout) until the clock catches up; node IDs must then leave that bit clear,
+         * i.e. stay below 2^(nodeIdBits - 1)
+         */
+        BACKUP_NODE
+    }
+
+    private static final ClockRollbackPolicy FAIL_POLICY = new ClockRollbackPolicy(Strategy.FAIL, 0);
+
+    private final Strategy strategy;
+    private final long maxRollbackMillis;
+
+    private ClockRollbackPolicy(Strategy strategy, long maxRollbackMillis) {
+        if (maxRollbackMillis < 0) {
+            throw new IllegalArgumentException("Max rollback must not be negative, got " + maxRollbackMillis);
+        }
+        this.strategy = strategy;
+        this.maxRollbackMillis = maxRollbackMillis;
+    }
+
+    /**
+     * @return A policy that fails on every clock regression
+     */
+    public static ClockRollbackPolicy fail() {
+        return FAIL_POLICY;
+    }
+
+    /**
+     * @param maxRollbackMillis The largest regression absorbed before failing
+     * @return A policy that borrows from the last timestamp
+     */
+    public static ClockRollbackPolicy borrow(long maxRollbackMillis) {
+        return new ClockRollbackPolicy(Strategy.BORROW, maxRollbackMillis);
+    }
+
+    /**
+     * @param maxRollbackMillis The largest regression waited out before failing
+     * @return A policy that waits for the clock to catch up
+     */
+    public static ClockRollbackPolicy waitUpTo(long maxRollbackMillis) {
+        return new ClockRollbackPolicy(Strategy.WAIT, maxRollbackMillis);
+    }
+
+    /**
+     * @param maxRollbackMillis The largest regression absorbed before failing
+     * @return A policy that switches to the backup node-ID bit
+     */
+    public static ClockRollbackPolicy backupNode(long maxRollbackMillis) {
+        return new ClockRollbackPolicy(Strategy.BACKUP_NODE, maxRollbackMillis);
+    }
+
+    /**
+     * Create a policy from its strategy and threshold
+     *
+     * @param strategy          The rollback strategy
+     * @param maxRollbackMillis The largest regression absorbed before failing
+     * @return The policy
+     */
+    public static ClockRollbackPolicy of(Strategy strategy, long maxRollbackMillis) {
+        if (strategy == null) {
+            throw new IllegalArgumentException("Rollback strategy must not be null");
+        }
+        return strategy == Strategy.FAIL ? FAIL_POLICY : new ClockRollbackPolicy(strategy, maxRollbackMillis);
+    }
+
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    public long getMaxRollbackMillis() {
+        return maxRollbackMillis;
+    }
+
+    @Override
+    public String toString() {
+        return strategy == Strategy.FAIL ? "FAIL" : strategy + "(" + maxRollbackMillis + "ms)";
+    }
+}
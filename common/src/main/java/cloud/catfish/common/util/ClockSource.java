@@ -0,0 +1,36 @@
+package cloud.catfish.common.util;
+
+import java.time.Instant;
+
+/**
+ * Millisecond clock used by {@link Snowflake} to timestamp IDs
+ *
+ * Implementations:
+ * - {@link #instant()}: Instant.now().toEpochMilli(), allocates an Instant per call
+ * - {@link #system()}: System.currentTimeMillis(), allocation-free (default)
+ * - {@link CachedClockSource}: a value refreshed by a ticker thread, a plain volatile read per call
+ *
+ * Tests can supply their own implementation to drive the generator with a fake clock.
+ */
+@FunctionalInterface
+public interface ClockSource {
+
+    /**
+     * @return The current time in milliseconds since the Unix epoch
+     */
+    long millis();
+
+    /**
+     * @return A clock backed by {@link Instant#now()}
+     */
+    static ClockSource instant() {
+        return () -> Instant.now().toEpochMilli();
+    }
+
+    /**
+     * @return A clock backed by {@link System#currentTimeMillis()}
+     */
+    static ClockSource system() {
+        return System::currentTimeMillis;
+    }
+}
@@ -0,0 +1,95 @@
+package cloud.catfish.common.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * File-lock Node ID Allocator
+ *
+ * Leases node IDs to processes sharing one host by locking one file per node ID
+ * ({@code node-<id>.lock}) in a common directory. The operating system drops the lock
+ * when the process dies, so a crashed process never keeps its node ID.
+ *
+ * Only processes on the same host see each other's locks: use {@link JdbcNodeIdAllocator}
+ * when instances run on several hosts.
+ */
+public class FileLockNodeIdAllocator implements NodeIdAllocator {
+
+    private final Path directory;
+    private FileChannel channel;
+    private volatile FileLock lock;
+    private long nodeId = -1L;
+
+    /**
+     * Create a file-lock allocator
+     *
+     * @param directory The directory shared by all processes of the host
+     */
+    public FileLockNodeIdAllocator(Path directory) {
+        if (directory == null) {
+            throw new IllegalArgumentException("Lock directory must not be null");
+        }
+        this.directory = directory;
+    }
+
+    @Override
+    public synchronized long acquire(long maxNodeId) {
+        if (lock != null) {
+            throw new IllegalStateException("Node ID " + nodeId + " is already leased");
+        }
+        try {
+            Files.createDirectories(directory);
+            for (long candidateId = 0; candidateId <= maxNodeId; candidateId++) {
+                FileChannel candidate = FileChannel.open(directory.resolve("node-" + candidateId + ".lock"),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                FileLock candidateLock;
+                try {
+                    candidateLock = candidate.tryLock();
+                } catch (OverlappingFileLockException ex) {
+                    // Held by another allocator of this JVM
+                    candidateLock = null;
+                }
+                if (candidateLock != null) {
+                    channel = candidate;
+                    lock = candidateLock;
+                    nodeId = candidateId;
+                    return nodeId;
+                }
+                candidate.close();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot lease a node ID in " + directory, ex);
+        }
+        throw new IllegalStateException(String.format("All node IDs from 0 to %d are locked in %s", maxNodeId, directory));
+    }
+
+    @Override
+    public boolean isLeaseValid() {
+        // Read without the monitor: generators check the lease on every default-node ID
+        FileLock current = lock;
+        return current != null && current.isValid();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            // Closing the channel releases the lock
+            channel.close();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot release node ID lock in " + directory, ex);
+        } finally {
+            channel = null;
+            lock = null;
+            nodeId = -1L;
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package cloud.catfish.common.util;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JDBC Node ID Allocator
+ *
+ * Leases node IDs from a database table shared by all instances:
+ *
+ * <pre>
+ *   node_id    INT         primary key
+ *   owner      VARCHAR(64) instance holding the lease
+ *   expires_at BIGINT      end of the lease in epoch milliseconds
+ * </pre>
+ *
+ * A free node ID is claimed by inserting its row, an expired one by a conditional update
+ * of the row, so two instances racing for the same node ID cannot both win. A daemon
+ * thread renews the lease every third of its TTL. If an instance stops renewing, its node
+ * ID becomes free once the lease has expired; the next owner only generates IDs with
+ * timestamps after that moment, so it never repeats an ID of the previous owner as long
+ * as the clocks of the hosts differ by less than the TTL.
+ *
+ * The lease is only valid until the expiry of the last successful heartbeat: when the
+ * heartbeat fails (e.g. the database is unreachable) or finds the row taken over,
+ * {@link #isLeaseValid()} turns false and the node ID must no longer be used.
+ */
+public class JdbcNodeIdAllocator implements NodeIdAllocator {
+
+    /**
+     * Default name of the lease table
+     */
+    public static final String DEFAULT_TABLE = "snowflake_node_lease";
+
+    /**
+     * Default lease duration
+     */
+    public static final Duration DEFAULT_LEASE_TTL = Duration.ofSeconds(30);
+
+    private final DataSource dataSource;
+    private final String table;
+    private final long leaseTtlMillis;
+    private final String owner;
+    private ScheduledExecutorService heartbeat;
+    private long nodeId = -1L;
+    private volatile boolean leaseValid;
+    // End of the lease as known locally, counted from before the statement that set it
+    private volatile long leaseExpiresAt;
+
+    /**
+     * Create a JDBC allocator using the default table and lease duration
+     *
+     * @param dataSource The database shared by all instances
+     */
+    public JdbcNodeIdAllocator(DataSource dataSource) {
+        this(dataSource, DEFAULT_TABLE, DEFAULT_LEASE_TTL);
+    }
+
+    /**
+     * Create a JDBC allocator
+     *
+     * @param dataSource The database shared by all instances
+     * @param table      The lease table, created if it does not exist
+     * @param leaseTtl   How long a lease survives without heartbeat
+     */
+    public JdbcNodeIdAllocator(DataSource dataSource, String table, Duration leaseTtl) {
+        if (dataSource == null) {
+            throw new IllegalArgumentException("DataSource must not be null");
+        }
+        if (table == null || !table.matches("[A-Za-z_][A-Za-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid lease table name: " + table);
+        }
+        if (leaseTtl == null || leaseTtl.toMillis() < 3) {
+            throw new IllegalArgumentException("Lease TTL must be at least 3 milliseconds, got " + leaseTtl);
+        }
+        this.dataSource = dataSource;
+        this.table = table;
+        this.leaseTtlMillis = leaseTtl.toMillis();
+        // pid@host plus a random suffix, so two allocators of one JVM are distinct owners
+        String process = ManagementFactory.getRuntimeMXBean().getName();
+        this.owner = process.substring(0, Math.min(process.length(), 55)) + "/" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @Override
+    public synchronized long acquire(long maxNodeId) {
+        if (nodeId >= 0) {
+            throw new IllegalStateException("Node ID " + nodeId + " is already leased");
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            createTableIfAbsent(connection);
+            Map<Long, Long> leases = readLeases(connection);
+            for (long candidateId = 0; candidateId <= maxNodeId; candidateId++) {
+                Long expiresAt = leases.get(candidateId);
+                long now = System.currentTimeMillis();
+                boolean claimed;
+                if (expiresAt == null) {
+                    claimed = tryInsert(connection, candidateId, now + leaseTtlMillis);
+                } else if (expiresAt < now) {
+                    claimed = tryTakeOver(connection, candidateId, expiresAt, now + leaseTtlMillis);
+                } else {
+                    claimed = false;
+                }
+                if (claimed) {
+                    nodeId = candidateId;
+                    leaseExpiresAt = now + leaseTtlMillis;
+                    leaseValid = true;
+                    startHeartbeat();
+                    return nodeId;
+                }
+            }
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Cannot lease a node ID from " + table, ex);
+        }
+        throw new IllegalStateException(String.format("All node IDs from 0 to %d are leased in %s", maxNodeId, table));
+    }
+
+    /**
+     * @return Whether the lease is still held: false once the heartbeat found the row taken
+     *         over, or once the lease expired because the heartbeat could not renew it
+     */
+    @Override
+    public boolean isLeaseValid() {
+        return leaseValid && System.currentTimeMillis() < leaseExpiresAt;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (nodeId < 0) {
+            return;
+        }
+        heartbeat.shutdownNow();
+        heartbeat = null;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(
+                     "UPDATE " + table + " SET expires_at = ? WHERE node_id = ? AND owner = ?")) {
+            // Expire the lease now rather than deleting it: the next owner starts after this millisecond
+            ps.setLong(1, System.currentTimeMillis());
+            ps.setLong(2, nodeId);
+            ps.setString(3, owner);
+            ps.executeUpdate();
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Cannot release node ID " + nodeId + " in " + table, ex);
+        } finally {
+            nodeId = -1L;
+            leaseValid = false;
+        }
+    }
+
+    /**
+     * Extend the lease by one TTL
+     *
+     * @return Whether this instance still owns its node ID
+     */
+    synchronized boolean renew() {
+        if (nodeId < 0) {
+            return false;
+        }
+        long expiresAt = System.currentTimeMillis() + leaseTtlMillis;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(
+                     "UPDATE " + table + " SET expires_at = ? WHERE node_id = ? AND owner = ?")) {
+            ps.setLong(1, expiresAt);
+            ps.setLong(2, nodeId);
+            ps.setString(3, owner);
+            if (ps.executeUpdate() == 1) {
+                leaseExpiresAt = expiresAt;
+            } else {
+                // Another instance took the node ID over after our lease expired
+                leaseValid = false;
+            }
+        } catch (SQLException ex) {
+            // A failed heartbeat is retried on the next tick; the lease stays ours only until leaseExpiresAt
+        }
+        return isLeaseValid();
+    }
+
+    /**
+     * @return The owner name written into the lease table by this allocator
+     */
+    public String getOwner() {
+        return owner;
+    }
+
+    private void startHeartbeat() {
+        heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "snowflake-node-lease-" + nodeId);
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = leaseTtlMillis / 3;
+        heartbeat.scheduleAtFixedRate(this::renew, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    private void createTableIfAbsent(Connection connection) throws SQLException {
+        // Look the table up first, so an account without CREATE privilege works against an existing table
+        try (ResultSet rs = connection.getMetaData().getTables(connection.getCatalog(), null, table, new String[]{"TABLE"})) {
+            if (rs.next()) {
+                return;
+            }
+        }
+        try (ResultSet rs = connection.getMetaData().getTables(connection.getCatalog(), null, table.toUpperCase(), new String[]{"TABLE"})) {
+            if (rs.next()) {
+                return;
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS " + table + " (" +
+                    "node_id INT NOT NULL PRIMARY KEY, " +
+                    "owner VARCHAR(64) NOT NULL, " +
+                    "expires_at BIGINT NOT NULL)");
+        }
+    }
+
+    private Map<Long, Long> readLeases(Connection connection) throws SQLException {
+        Map<Long, Long> leases = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT node_id, expires_at FROM " + table)) {
+            while (rs.next()) {
+                leases.put(rs.getLong(1), rs.getLong(2));
+            }
+        }
+        return leases;
+    }
+
+    private boolean tryInsert(Connection connection, long candidateId, long expiresAt) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO " + table + " (node_id, owner, expires_at) VALUES (?, ?, ?)")) {
+            ps.setLong(1, candidateId);
+            ps.setString(2, owner);
+            ps.setLong(3, expiresAt);
+            return ps.executeUpdate() == 1;
+        } catch (SQLException ex) {
+            if (isConstraintViolation(ex)) {
+                // Another instance inserted the row first
+                return false;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * @return Whether the exception is an integrity constraint violation (SQLState class 23),
+     *         as raised by a duplicate primary key
+     */
+    private static boolean isConstraintViolation(SQLException ex) {
+        return ex instanceof SQLIntegrityConstraintViolationException
+                || (ex.getSQLState() != null && ex.getSQLState().startsWith("23"));
+    }
+
+    private boolean tryTakeOver(Connection connection, long candidateId, long previousExpiresAt, long expiresAt) throws SQLException {
+        // Matching the expiry we read makes the takeover a compare-and-set on the row
+        try (PreparedStatement ps = connection.prepareStatement(
+                "UPDATE " + table + " SET owner = ?, expires_at = ? WHERE node_id = ? AND expires_at = ?")) {
+            ps.setString(1, owner);
+            ps.setLong(2, expiresAt);
+            ps.setLong(3, candidateId);
+            ps.setLong(4, previousExpiresAt);
+            return ps.executeUpdate() == 1;
+        }
+    }
+}
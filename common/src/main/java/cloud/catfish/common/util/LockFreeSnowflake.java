@@ -0,0 +1,237 @@
+package cloud.catfish.common.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free Snowflake ID Generator
+ *
+ * Produces exactly the same IDs as {@link Snowflake} for any {@link SnowflakeLayout}, but instead of guarding
+ * {@code lastTimestamp} and {@code sequence} with a lock, both are packed into a
+ * single {@link AtomicLong} and advanced with compare-and-set:
+ *
+ * <pre>
+ *   state = (timestamp - epoch) &lt;&lt; sequenceBits | sequence
+ * </pre>
+ *
+ * Because the timestamp occupies the high bits, the packed state is strictly increasing,
+ * so IDs handed out by successful CAS operations are strictly increasing as well, which
+ * keeps the monotonicity guarantee of the synchronized implementation.
+ */
+public class LockFreeSnowflake extends Snowflake {
+
+    // Returned by tryNextId() when the CAS was lost; real IDs never have the sign bit set
+    static final long CONTENDED = -1L;
+
+    private final AtomicLong state = new AtomicLong();
+
+    // Packed state of the backup node-ID lane, used only by ClockRollbackPolicy.Strategy.BACKUP_NODE
+    private final AtomicLong backupState = new AtomicLong();
+
+    /**
+     * Create a lock-free Snowflake ID generator with a randomly generated node ID
+     */
+    public LockFreeSnowflake() {
+        super();
+    }
+
+    /**
+     * Create a lock-free Snowflake ID generator with the specified node ID
+     *
+     * @param nodeId The node ID (0-1023)
+     */
+    public LockFreeSnowflake(long nodeId) {
+        super(nodeId);
+    }
+
+    /**
+     * Create a lock-free Snowflake ID generator with the specified node ID and clock
+     *
+     * @param nodeId The node ID (0-1023)
+     * @param clock  The clock used to timestamp IDs
+     */
+    public LockFreeSnowflake(long nodeId, ClockSource clock) {
+        super(nodeId, clock);
+    }
+
+    /**
+     * Create a lock-free Snowflake ID generator with the specified node ID, clock and rollback policy
+     *
+     * @param nodeId         The node ID (0-1023, or 0-511 with a backup-node policy)
+     * @param clock          The clock used to timestamp IDs
+     * @param rollbackPolicy How to react when the clock moves backwards
+     */
+    public LockFreeSnowflake(long nodeId, ClockSource clock, ClockRollbackPolicy rollbackPolicy) {
+        super(nodeId, clock, rollbackPolicy);
+    }
+
+    /**
+     * Create a lock-free Snowflake ID generator with a custom bit layout
+     *
+     * @param layout         The bit layout of generated IDs
+     * @param nodeId         The node ID (0 to layout.getMaxNodeId(), halved with a backup-node policy)
+     * @param clock          The clock used to timestamp IDs
+     * @param rollbackPolicy How to react when the clock moves backwards
+     */
+    public LockFreeSnowflake(SnowflakeLayout layout, long nodeId, ClockSource clock, ClockRollbackPolicy rollbackPolicy) {
+        super(layout, nodeId, clock, rollbackPolicy);
+    }
+
+    /**
+     * Create a lock-free Snowflake ID generator recording its events into shared counters
+     * and a shared rollback episode
+     */
+    LockFreeSnowflake(SnowflakeLayout layout, long nodeId, ClockSource clock, ClockRollbackPolicy rollbackPolicy,
+                      SnowflakeStats stats, ClockRollbackEpisode rollbackEpisode) {
+        super(layout, nodeId, clock, rollbackPolicy, stats, rollbackEpisode);
+    }
+
+    /**
+     * Generate a new Snowflake ID without taking a lock
+     *
+     * @return A new Snowflake ID
+     */
+    @Override
+    public long nextId() {
+        long id = tryNextId();
+        while (id == CONTENDED) {
+            stats.contentions.increment();
+            id = tryNextId();
+        }
+        stats.generatedIds.increment();
+        return id;
+    }
+
+    /**
+     * Make a single compare-and-set attempt at the next ID
+     *
+     * @return A new Snowflake ID, or {@link #CONTENDED} if another thread won the race
+     */
+    long tryNextId() {
+        for (;;) {
+            // Read the state before the clock: any timestamp published by another thread
+            // was read from the clock before ours, so a smaller value means a real rollback.
+            AtomicLong lane = state;
+            long laneNodeId = shiftedNodeId;
+            long current = lane.get();
+            long lastTimestamp = current >>> sequenceBits;
+            long currentTimestamp = timestamp() - epoch;
+            boolean borrowing = false;
+
+            // Handle clock moving backwards
+            if (currentTimestamp < lastTimestamp) {
+                switch (onClockRollback(lastTimestamp, currentTimestamp)) {
+                    case BORROW:
+                        currentTimestamp = lastTimestamp;
+                        borrowing = true;
+                        break;
+                    case BACKUP_NODE:
+                        long primaryLastTimestamp = lastTimestamp;
+                        lane = backupState;
+                        laneNodeId = shiftedBackupNodeId;
+                        current = lane.get();
+                        lastTimestamp = current >>> sequenceBits;
+                        currentTimestamp = timestamp() - epoch;
+                        if (currentTimestamp < lastTimestamp) {
+                            rollbackFailed(primaryLastTimestamp);
+                            throw new IllegalStateException("Clock moved backwards behind the backup node as well. Refusing to generate ID for " +
+                                    (lastTimestamp - currentTimestamp) + " milliseconds");
+                        }
+                        break;
+                    default:
+                        awaitClock(lastTimestamp + epoch);
+                        continue;
+                }
+            } else {
+                clockCaughtUp(currentTimestamp);
+            }
+
+            long next;
+            if (currentTimestamp > lastTimestamp) {
+                // We're in a new millisecond, reset the sequence
+                checkElapsed(currentTimestamp);
+                next = currentTimestamp << sequenceBits;
+            } else if ((current & maxSequence) < maxSequence) {
+                // Same millisecond, take the next sequence number
+                next = current + 1;
+            } else if (borrowing) {
+                // The logical clock ran out of sequences, borrow the next millisecond
+                checkElapsed(lastTimestamp + 1);
+                next = (lastTimestamp + 1) << sequenceBits;
+            } else {
+                // We've run out of sequences for this millisecond, wait and retry
+                waitForNextMillis(lastTimestamp + epoch);
+                continue;
+            }
+
+            if (!lane.compareAndSet(current, next)) {
+                return CONTENDED;
+            }
+            return ((next >>> sequenceBits) << timestampShift) |
+                    laneNodeId |
+                    (next & maxSequence);
+        }
+    }
+
+    /**
+     * Reserve a block of sequence slots, claiming as many slots of the current
+     * millisecond as possible with each compare-and-set.
+     *
+     * A clock rollback is handled as by {@link #nextId()}, except that the backup-node
+     * strategy waits for the clock instead: a range always belongs to the primary node ID.
+     *
+     * @param n The number of IDs to reserve
+     * @return The reserved range
+     */
+    @Override
+    public SnowflakeRange reserveRange(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("Range size must be positive, got " + n);
+        }
+        SnowflakeRange range = new SnowflakeRange();
+        int remaining = n;
+        while (remaining > 0) {
+            long current = state.get();
+            long lastTimestamp = current >>> sequenceBits;
+            long currentTimestamp = timestamp() - epoch;
+            boolean borrowing = false;
+
+            // Handle clock moving backwards
+            if (currentTimestamp < lastTimestamp) {
+                if (onClockRollback(lastTimestamp, currentTimestamp) != ClockRollbackPolicy.Strategy.BORROW) {
+                    awaitClock(lastTimestamp + epoch);
+                    continue;
+                }
+                currentTimestamp = lastTimestamp;
+                borrowing = true;
+            } else {
+                clockCaughtUp(currentTimestamp);
+            }
+
+            long first;
+            if (currentTimestamp > lastTimestamp) {
+                checkElapsed(currentTimestamp);
+                first = currentTimestamp << sequenceBits;
+            } else if ((current & maxSequence) < maxSequence) {
+                first = current + 1;
+            } else if (borrowing) {
+                checkElapsed(lastTimestamp + 1);
+                first = (lastTimestamp + 1) << sequenceBits;
+            } else {
+                waitForNextMillis(lastTimestamp + epoch);
+                continue;
+            }
+
+            int count = (int) Math.min(remaining, maxSequence + 1 - (first & maxSequence));
+            if (state.compareAndSet(current, first + count - 1)) {
+                range.addSegment(((first >>> sequenceBits) << timestampShift) |
+                        shiftedNodeId |
+                        (first & maxSequence), count);
+                remaining -= count;
+            } else {
+                stats.contentions.increment();
+            }
+        }
+        stats.generatedIds.add(n);
+        return range;
+    }
+}
@@ -0,0 +1,37 @@
+package cloud.catfish.common.util;
+
+/**
+ * Node ID Allocator
+ *
+ * Hands out Snowflake node IDs that are unique among all running instances, so that
+ * instances of the same application never generate colliding IDs. An allocator holds
+ * at most one lease at a time and gives it back when closed.
+ *
+ * A lease can be lost while the instance runs, e.g. when it could not be renewed in time.
+ * IDs must no longer be generated under the node ID once {@link #isLeaseValid()} is false;
+ * the allocator can then be closed and asked for a new lease.
+ */
+public interface NodeIdAllocator extends AutoCloseable {
+
+    /**
+     * Lease a node ID that no other live instance holds
+     *
+     * @param maxNodeId The largest node ID of the layout in use
+     * @return The leased node ID (0 to maxNodeId)
+     * @throws IllegalStateException if every node ID is taken
+     */
+    long acquire(long maxNodeId);
+
+    /**
+     * Called before every ID of the leased node ID is generated, so implementations must be cheap
+     *
+     * @return Whether the lease taken by {@link #acquire(long)} is still held
+     */
+    boolean isLeaseValid();
+
+    /**
+     * Give the leased node ID back
+     */
+    @Override
+    void close();
+}
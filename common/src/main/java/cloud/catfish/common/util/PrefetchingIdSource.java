@@ -0,0 +1,243 @@
+package cloud.catfish.common.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Prefetching Snowflake ID Source
+ *
+ * Keeps a bounded ring buffer of IDs generated ahead of time by a background thread, so
+ * callers never wait for the generator: taking an ID is one read of the buffer and one
+ * compare-and-set of the consumer index. When the buffer runs empty, callers fall back to
+ * the generator directly rather than waiting for the refill.
+ *
+ * The refill thread tops the buffer up whenever it drops to the low-water mark, and at
+ * least once per refill interval otherwise. Prefetched IDs carry the time they were
+ * generated, not the time they were taken. So that this time stays close to the moment an
+ * ID is handed out, which keeps time-range queries on IDs and the ordering of IDs by creation
+ * time meaningful, a buffer whose oldest ID is older than the maximum age is discarded and
+ * the caller falls back to the generator. IDs are unique and increasing per refill but only
+ * ordered by the time they were handed out to within that age.
+ */
+public class PrefetchingIdSource implements AutoCloseable {
+
+    private static final long REFILL_INTERVAL_NANOS = 1_000_000L;
+
+    /**
+     * Default maximum age of a prefetched ID, in milliseconds
+     */
+    public static final long DEFAULT_MAX_AGE_MILLIS = 5L;
+
+    private final Snowflake generator;
+    private final long[] buffer;
+    private final int mask;
+    private final int lowWaterMark;
+    private final long maxAgeMillis;
+    private final SnowflakeLayout layout;
+    private final Thread refiller;
+    private volatile boolean running = true;
+
+    // Next index to take, advanced by consumers
+    private final AtomicLong head = new AtomicLong();
+    // Next index to fill, advanced by the refill thread only
+    private volatile long tail;
+
+    // Reporting
+    private final AtomicLong lowestLevel;
+    private final LongAdder lowWaterTakes = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder staleDrops = new LongAdder();
+
+    /**
+     * Create a prefetching ID source with the low-water mark at a quarter of the capacity
+     *
+     * @param generator The generator to prefetch from
+     * @param capacity  The buffer size, rounded up to a power of two
+     */
+    public PrefetchingIdSource(Snowflake generator, int capacity) {
+        this(generator, capacity, Math.max(1, capacity / 4));
+    }
+
+    /**
+     * Create a prefetching ID source
+     *
+     * @param generator    The generator to prefetch from
+     * @param capacity     The buffer size, rounded up to a power of two
+     * @param lowWaterMark The fill level at which the refill thread is woken up
+     */
+    public PrefetchingIdSource(Snowflake generator, int capacity, int lowWaterMark) {
+        this(generator, capacity, lowWaterMark, DEFAULT_MAX_AGE_MILLIS);
+    }
+
+    /**
+     * Create a prefetching ID source
+     *
+     * @param generator    The generator to prefetch from
+     * @param capacity     The buffer size, rounded up to a power of two
+     * @param lowWaterMark The fill level at which the refill thread is woken up
+     * @param maxAgeMillis How long, in milliseconds, a prefetched ID may wait in the buffer
+     */
+    public PrefetchingIdSource(Snowflake generator, int capacity, int lowWaterMark, long maxAgeMillis) {
+        if (generator == null) {
+            throw new IllegalArgumentException("Generator must not be null");
+        }
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30, got " + capacity);
+        }
+        if (lowWaterMark < 0 || lowWaterMark >= capacity) {
+            throw new IllegalArgumentException(String.format("LowWaterMark must be between 0 and %d", capacity - 1));
+        }
+        if (maxAgeMillis < 0) {
+            throw new IllegalArgumentException("Max age must not be negative, got " + maxAgeMillis);
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.generator = generator;
+        this.buffer = new long[size];
+        this.mask = size - 1;
+        this.lowWaterMark = lowWaterMark;
+        this.maxAgeMillis = maxAgeMillis;
+        this.layout = generator.getLayout();
+        this.lowestLevel = new AtomicLong(size);
+        this.refiller = new Thread(this::refillLoop, "snowflake-id-prefetch");
+        this.refiller.setDaemon(true);
+        this.refiller.start();
+    }
+
+    /**
+     * Take the next prefetched ID, or generate one directly if the buffer is empty
+     *
+     * @return A new Snowflake ID
+     */
+    public long nextId() {
+        for (;;) {
+            long h = head.get();
+            long t = tail;
+            if (h >= t) {
+                fallbacks.increment();
+                LockSupport.unpark(refiller);
+                return generator.nextId();
+            }
+            // Read the slot before claiming it: the refill thread only overwrites it once head has moved past
+            long id = buffer[(int) h & mask];
+            if (generator.timestamp() - layout.getTimestamp(id) > maxAgeMillis) {
+                // The oldest ID waited too long, the rest of its refill is no fresher: drop them all
+                if (head.compareAndSet(h, t)) {
+                    staleDrops.add(t - h);
+                    LockSupport.unpark(refiller);
+                }
+                continue;
+            }
+            if (head.compareAndSet(h, h + 1)) {
+                long level = t - h - 1;
+                if (level <= lowWaterMark) {
+                    onLowWater(level);
+                }
+                return id;
+            }
+        }
+    }
+
+    private void onLowWater(long level) {
+        lowWaterTakes.increment();
+        long lowest = lowestLevel.get();
+        while (level < lowest && !lowestLevel.compareAndSet(lowest, level)) {
+            lowest = lowestLevel.get();
+        }
+        LockSupport.unpark(refiller);
+    }
+
+    private void refillLoop() {
+        while (running) {
+            long t = tail;
+            int free = (int) (buffer.length - (t - head.get()));
+            if (free > 0) {
+                try {
+                    SnowflakeRange range = generator.reserveRange(free);
+                    for (int i = 0; i < free; i++) {
+                        buffer[(int) (t + i) & mask] = range.get(i);
+                    }
+                    // Publishing the new tail makes the slots written above visible to consumers
+                    tail = t + free;
+                } catch (IllegalStateException ex) {
+                    // Clock rollback the generator refused to absorb: consumers fall back
+                    // to the generator and see the error themselves, retry on the next tick
+                }
+            }
+            LockSupport.parkNanos(this, REFILL_INTERVAL_NANOS);
+        }
+    }
+
+    /**
+     * @return The number of prefetched IDs currently in the buffer
+     */
+    public int size() {
+        return (int) Math.max(0, tail - head.get());
+    }
+
+    /**
+     * @return The buffer size
+     */
+    public int getCapacity() {
+        return buffer.length;
+    }
+
+    /**
+     * @return The fill level at which the refill thread is woken up
+     */
+    public int getLowWaterMark() {
+        return lowWaterMark;
+    }
+
+    /**
+     * @return The lowest fill level seen at or below the low-water mark, or the capacity if it was never reached
+     */
+    public long getLowestLevel() {
+        return lowestLevel.get();
+    }
+
+    /**
+     * @return The number of IDs taken while the buffer was at or below the low-water mark
+     */
+    public long getLowWaterTakes() {
+        return lowWaterTakes.sum();
+    }
+
+    /**
+     * @return How long, in milliseconds, a prefetched ID may wait in the buffer
+     */
+    public long getMaxAgeMillis() {
+        return maxAgeMillis;
+    }
+
+    /**
+     * @return The number of prefetched IDs discarded because they exceeded the maximum age
+     */
+    public long getStaleDrops() {
+        return staleDrops.sum();
+    }
+
+    /**
+     * @return The number of IDs generated directly because the buffer was empty
+     */
+    public long getFallbacks() {
+        return fallbacks.sum();
+    }
+
+    /**
+     * @return The generator this source prefetches from
+     */
+    public Snowflake getGenerator() {
+        return generator;
+    }
+
+    /**
+     * Stop the refill thread. IDs left in the buffer are still handed out, after which
+     * every call falls back to the generator.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(refiller);
+    }
+}
@@ -4,45 +4,67 @@ import java.net.NetworkInterface;
 import java.security.SecureRandom;
 import java.time.Instant;
 import java.util.Enumeration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Twitter Snowflake ID Generator Implementation
  * 
  * Generates unique IDs using Twitter's Snowflake algorithm.
  * 
- * The IDs are 64 bits, composed of:
+ * The IDs are 64 bits, laid out by a {@link SnowflakeLayout}. The default layout has:
  * - 41 bits for timestamp (milliseconds since custom epoch)
  * - 10 bits for machine/node ID (allows for 1024 nodes)
  * - 12 bits for sequence number (allows for 4096 IDs per millisecond per node)
  * 
- * This implementation uses January 1, 2015 as the custom epoch.
+ * The default layout uses January 1, 2015 as the custom epoch.
+ * Timestamps are read from a pluggable {@link ClockSource}, System.currentTimeMillis() by default.
+ * Clock regressions are handled according to a {@link ClockRollbackPolicy} and counted in
+ * {@link SnowflakeStats}.
+ *
+ * This engine serializes callers on a lock; a caller that finds the lock held is counted as a
+ * contention before it blocks.
  */
 public class Snowflake {
 
-    // Custom epoch (January 1, 2015 Midnight UTC = 2015-01-01T00:00:00Z)
-    private static final long CUSTOM_EPOCH = 1420070400000L;
-
-    private final long nodeId;
+    protected final SnowflakeLayout layout;
+    protected final long nodeId;
+    protected final ClockSource clock;
+    protected final ClockRollbackPolicy rollbackPolicy;
+    protected final SnowflakeStats stats;
+    private final ReentrantLock lock = new ReentrantLock();
     private volatile long lastTimestamp = -1L;
     private volatile long sequence = 0L;
 
-    // Bit lengths for different parts of the ID
-    private static final int NODE_ID_BITS = 10;
-    private static final int SEQUENCE_BITS = 12;
+    // State of the backup node-ID lane, used only by ClockRollbackPolicy.Strategy.BACKUP_NODE
+    private long backupLastTimestamp = -1L;
+    private long backupSequence = 0L;
+
+    // Whether the clock is currently behind, shared by the engines of a striped generator
+    final ClockRollbackEpisode rollbackEpisode;
+
+    // Layout values copied into final fields, so the hot path only reads this object
+    protected final long epoch;
+    protected final int sequenceBits;
+    protected final int timestampShift;
+    protected final long maxTimestamp;
+    protected final long maxSequence;
 
-    // Maximum values for node ID and sequence
-    private static final long MAX_NODE_ID = (1L << NODE_ID_BITS) - 1;
-    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+    // Node-ID parts already shifted into place
+    protected final long shiftedNodeId;
+    protected final long shiftedBackupNodeId;
 
-    // Bit shifts for different parts of the ID
-    private static final int TIMESTAMP_SHIFT = NODE_ID_BITS + SEQUENCE_BITS;
-    private static final int NODE_ID_SHIFT = SEQUENCE_BITS;
+    // Adaptive wait for the next millisecond: spin briefly, then park in short slices
+    private static final int MAX_SPINS = 128;
+    private static final long PARK_NANOS = 50_000L;
 
     /**
      * Create a Snowflake ID generator with a randomly generated node ID
      */
     public Snowflake() {
-        this.nodeId = createNodeId();
+        this(SnowflakeLayout.DEFAULT, createNodeId(SnowflakeLayout.DEFAULT.getMaxNodeId()), ClockSource.system(),
+                ClockRollbackPolicy.fail(), new SnowflakeStats(), null);
     }
 
     /**
@@ -51,10 +73,81 @@ public class Snowflake {
      * @param nodeId The node ID (0-1023)
      */
     public Snowflake(long nodeId) {
-        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
-            throw new IllegalArgumentException(String.format("NodeId must be between 0 and %d", MAX_NODE_ID));
+        this(nodeId, ClockSource.system());
+    }
+
+    /**
+     * Create a Snowflake ID generator with the specified node ID and clock
+     *
+     * @param nodeId The node ID (0-1023)
+     * @param clock  The clock used to timestamp IDs
+     */
+    public Snowflake(long nodeId, ClockSource clock) {
+        this(nodeId, clock, ClockRollbackPolicy.fail());
+    }
+
+    /**
+     * Create a Snowflake ID generator with the specified node ID, clock and rollback policy
+     *
+     * @param nodeId         The node ID (0-1023, or 0-511 with a backup-node policy)
+     * @param clock          The clock used to timestamp IDs
+     * @param rollbackPolicy How to react when the clock moves backwards
+     */
+    public Snowflake(long nodeId, ClockSource clock, ClockRollbackPolicy rollbackPolicy) {
+        this(SnowflakeLayout.DEFAULT, nodeId, clock, rollbackPolicy);
+    }
+
+    /**
+     * Create a Snowflake ID generator with a custom bit layout
+     *
+     * @param layout         The bit layout of generated IDs
+     * @param nodeId         The node ID (0 to layout.getMaxNodeId(), halved with a backup-node policy)
+     * @param clock          The clock used to timestamp IDs
+     * @param rollbackPolicy How to react when the clock moves backwards
+     */
+    public Snowflake(SnowflakeLayout layout, long nodeId, ClockSource clock, ClockRollbackPolicy rollbackPolicy) {
+        this(layout, nodeId, clock, rollbackPolicy, new SnowflakeStats(), null);
+    }
+
+    /**
+     * Create a Snowflake ID generator recording its events into the given counters and
+     * rollback episode, so that generators composed of several engines can share them
+     *
+     * @param rollbackEpisode The shared rollback episode, or null for one of its own
+     */
+    Snowflake(SnowflakeLayout layout, long nodeId, ClockSource clock, ClockRollbackPolicy rollbackPolicy,
+              SnowflakeStats stats, ClockRollbackEpisode rollbackEpisode) {
+        if (layout == null) {
+            throw new IllegalArgumentException("Snowflake layout must not be null");
+        }
+        if (nodeId < 0 || nodeId > layout.getMaxNodeId()) {
+            throw new IllegalArgumentException(String.format("NodeId must be between 0 and %d", layout.getMaxNodeId()));
+        }
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock source must not be null");
+        }
+        if (rollbackPolicy == null) {
+            throw new IllegalArgumentException("Clock rollback policy must not be null");
+        }
+        // Highest node-ID bit, reserved for the backup lane when rolling back to a backup node
+        long backupNodeBit = 1L << (layout.getNodeIdBits() - 1);
+        if (rollbackPolicy.getStrategy() == ClockRollbackPolicy.Strategy.BACKUP_NODE && (nodeId & backupNodeBit) != 0) {
+            throw new IllegalArgumentException(String.format(
+                    "NodeId must be between 0 and %d when the backup node bit is reserved", backupNodeBit - 1));
         }
+        this.layout = layout;
         this.nodeId = nodeId;
+        this.clock = clock;
+        this.rollbackPolicy = rollbackPolicy;
+        this.stats = stats;
+        this.rollbackEpisode = rollbackEpisode != null ? rollbackEpisode : new ClockRollbackEpisode(stats);
+        this.epoch = layout.getEpoch();
+        this.sequenceBits = layout.getSequenceBits();
+        this.timestampShift = layout.getTimestampShift();
+        this.maxTimestamp = layout.getMaxTimestamp();
+        this.maxSequence = layout.getMaxSequence();
+        this.shiftedNodeId = nodeId << layout.getNodeIdShift();
+        this.shiftedBackupNodeId = (nodeId | backupNodeBit) << layout.getNodeIdShift();
     }
 
     /**
@@ -62,47 +155,289 @@ public class Snowflake {
      *
      * @return A new Snowflake ID
      */
-    public synchronized long nextId() {
+    public long nextId() {
+        long id;
+        acquireLock();
+        try {
+            id = generateId();
+        } finally {
+            lock.unlock();
+        }
+        stats.generatedIds.increment();
+        return id;
+    }
+
+    /**
+     * Take the lock, counting a contention if another thread holds it
+     */
+    private void acquireLock() {
+        if (!lock.tryLock()) {
+            stats.contentions.increment();
+            lock.lock();
+        }
+    }
+
+    private long generateId() {
         long currentTimestamp = timestamp();
 
         // Handle clock moving backwards
         if (currentTimestamp < lastTimestamp) {
-            throw new IllegalStateException("Clock moved backwards. Refusing to generate ID for " +
-                    (lastTimestamp - currentTimestamp) + " milliseconds");
+            switch (onClockRollback(lastTimestamp, currentTimestamp)) {
+                case BORROW:
+                    return borrowNextId();
+                case BACKUP_NODE:
+                    return backupNextId(currentTimestamp);
+                default:
+                    currentTimestamp = awaitClock(lastTimestamp);
+                    break;
+            }
+        } else {
+            clockCaughtUp(currentTimestamp);
         }
 
         // If we're still in the same millisecond as the last ID generation,
         // increment the sequence number
         if (currentTimestamp == lastTimestamp) {
-            sequence = (sequence + 1) & MAX_SEQUENCE;
+            sequence = (sequence + 1) & maxSequence;
             // If we've run out of sequences for this millisecond, wait until the next millisecond
             if (sequence == 0) {
                 currentTimestamp = waitForNextMillis(lastTimestamp);
+                checkElapsed(currentTimestamp - epoch);
             }
         } else {
             // We're in a new millisecond, reset the sequence
+            checkElapsed(currentTimestamp - epoch);
             sequence = 0;
         }
 
         lastTimestamp = currentTimestamp;
 
         // Combine the different parts to form the final ID
-        return ((currentTimestamp - CUSTOM_EPOCH) << TIMESTAMP_SHIFT) |
-                (nodeId << NODE_ID_SHIFT) |
+        return ((currentTimestamp - epoch) << timestampShift) |
+                shiftedNodeId |
+                sequence;
+    }
+
+    /**
+     * Issue the next ID from the last timestamp used as a logical clock,
+     * moving it one millisecond ahead when its sequence numbers run out
+     *
+     * @return A new Snowflake ID
+     */
+    private long borrowNextId() {
+        sequence = (sequence + 1) & maxSequence;
+        if (sequence == 0) {
+            lastTimestamp++;
+            checkElapsed(lastTimestamp - epoch);
+        }
+        return ((lastTimestamp - epoch) << timestampShift) |
+                shiftedNodeId |
                 sequence;
     }
 
     /**
-     * Wait until the next millisecond
+     * Issue the next ID from the backup node-ID lane, which has its own
+     * timestamp and sequence so it never collides with the primary lane
+     *
+     * @param currentTimestamp The (rolled back) current timestamp
+     * @return A new Snowflake ID
+     */
+    private long backupNextId(long currentTimestamp) {
+        if (currentTimestamp < backupLastTimestamp) {
+            rollbackFailed(lastTimestamp);
+            throw new IllegalStateException("Clock moved backwards behind the backup node as well. Refusing to generate ID for " +
+                    (backupLastTimestamp - currentTimestamp) + " milliseconds");
+        }
+        if (currentTimestamp == backupLastTimestamp) {
+            backupSequence = (backupSequence + 1) & maxSequence;
+            if (backupSequence == 0) {
+                currentTimestamp = waitForNextMillis(backupLastTimestamp);
+            }
+        } else {
+            backupSequence = 0;
+        }
+        backupLastTimestamp = currentTimestamp;
+        return ((currentTimestamp - epoch) << timestampShift) |
+                shiftedBackupNodeId |
+                backupSequence;
+    }
+
+    /**
+     * Generate a batch of Snowflake IDs in a single critical section
+     *
+     * @param n The number of IDs to generate
+     * @return The generated IDs in ascending order
+     */
+    public long[] nextIds(int n) {
+        return reserveRange(n).toArray();
+    }
+
+    /**
+     * Reserve a contiguous block of sequence slots, moving on to the following
+     * milliseconds when the current one runs out, all under one lock acquisition.
+     *
+     * A clock rollback is handled as by {@link #nextId()}, except that the backup-node
+     * strategy waits for the clock instead: a range always belongs to the primary node ID.
+     *
+     * @param n The number of IDs to reserve
+     * @return The reserved range
+     */
+    public SnowflakeRange reserveRange(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("Range size must be positive, got " + n);
+        }
+        SnowflakeRange range;
+        acquireLock();
+        try {
+            range = reserveRangeLocked(n);
+        } finally {
+            lock.unlock();
+        }
+        stats.generatedIds.add(n);
+        return range;
+    }
+
+    private SnowflakeRange reserveRangeLocked(int n) {
+        long currentTimestamp = timestamp();
+        boolean borrowing = false;
+
+        // Handle clock moving backwards
+        if (currentTimestamp < lastTimestamp) {
+            if (onClockRollback(lastTimestamp, currentTimestamp) == ClockRollbackPolicy.Strategy.BORROW) {
+                currentTimestamp = lastTimestamp;
+                borrowing = true;
+            } else {
+                currentTimestamp = awaitClock(lastTimestamp);
+            }
+        } else {
+            clockCaughtUp(currentTimestamp);
+        }
+
+        long start = 0;
+        if (currentTimestamp == lastTimestamp) {
+            start = sequence + 1;
+            if (start > maxSequence) {
+                currentTimestamp = borrowing ? currentTimestamp + 1 : waitForNextMillis(lastTimestamp);
+                start = 0;
+            }
+        }
+
+        SnowflakeRange range = new SnowflakeRange();
+        int remaining = n;
+        for (;;) {
+            int count = (int) Math.min(remaining, maxSequence + 1 - start);
+            checkElapsed(currentTimestamp - epoch);
+            range.addSegment(((currentTimestamp - epoch) << timestampShift) |
+                    shiftedNodeId |
+                    start, count);
+            sequence = start + count - 1;
+            lastTimestamp = currentTimestamp;
+            remaining -= count;
+            if (remaining == 0) {
+                return range;
+            }
+            currentTimestamp = borrowing ? Math.max(currentTimestamp + 1, timestamp()) : waitForNextMillis(currentTimestamp);
+            start = 0;
+        }
+    }
+
+    /**
+     * Apply the rollback policy to a detected clock regression.
+     *
+     * The regression is counted in {@link SnowflakeStats} once, by the first caller that sees
+     * the clock behind; callers issuing IDs before the clock catches up belong to the same
+     * rollback and are not counted again.
+     *
+     * @param lastTimestamp    The last timestamp the clock fell behind
+     * @param currentTimestamp The current timestamp
+     * @return The strategy to apply
+     * @throws IllegalStateException if the regression cannot be absorbed
+     */
+    protected final ClockRollbackPolicy.Strategy onClockRollback(long lastTimestamp, long currentTimestamp) {
+        long offset = lastTimestamp - currentTimestamp;
+        ClockRollbackPolicy.Strategy strategy = rollbackPolicy.getStrategy();
+        if (strategy == ClockRollbackPolicy.Strategy.FAIL || offset > rollbackPolicy.getMaxRollbackMillis()) {
+            rollbackFailed(lastTimestamp);
+            throw new IllegalStateException("Clock moved backwards. Refusing to generate ID for " +
+                    offset + " milliseconds");
+        }
+        rollbackEpisode.absorbed(lastTimestamp, strategy);
+        return strategy;
+    }
+
+    /**
+     * Count a regression that could not be absorbed, once per rollback; a rollback that was
+     * absorbed at first and then grew past the threshold is counted as a failure as well
+     *
+     * @param lastTimestamp The last timestamp the clock fell behind
+     */
+    protected final void rollbackFailed(long lastTimestamp) {
+        rollbackEpisode.failed(lastTimestamp);
+    }
+
+    /**
+     * End the current rollback, if any, once the clock is back at or past the last timestamp
+     *
+     * @param currentTimestamp The current timestamp
+     */
+    protected final void clockCaughtUp(long currentTimestamp) {
+        rollbackEpisode.caughtUp(currentTimestamp);
+    }
+
+    /**
+     * Make sure a timestamp still fits into the timestamp bits of the layout,
+     * so an exhausted layout fails instead of overflowing into the sign bit
+     *
+     * @param elapsed Milliseconds since the epoch of the layout
+     * @throws IllegalStateException if the timestamp does not fit
+     */
+    protected final void checkElapsed(long elapsed) {
+        if (elapsed < 0 || elapsed > maxTimestamp) {
+            throw new IllegalStateException(String.format(
+                    "Timestamp %d is outside of the %d-bit range of %s", elapsed + epoch, layout.getTimestampBits(), layout));
+        }
+    }
+
+    /**
+     * Park the caller until the clock reaches the given timestamp
+     *
+     * @param targetTimestamp The timestamp to wait for
+     * @return The current timestamp, at least targetTimestamp
+     */
+    protected long awaitClock(long targetTimestamp) {
+        long currentTimestamp = timestamp();
+        while (currentTimestamp < targetTimestamp) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(targetTimestamp - currentTimestamp));
+            currentTimestamp = timestamp();
+        }
+        return currentTimestamp;
+    }
+
+    /**
+     * Wait until the next millisecond once the sequence numbers of the current one are used up.
+     *
+     * The wait is adaptive: a short burst of {@link Thread#onSpinWait()} covers the common case
+     * of the boundary being a few microseconds away, after which the caller parks in short
+     * slices instead of burning a core. Every call is counted as a sequence exhaustion.
      *
      * @param lastTimestamp The last timestamp
      * @return The current timestamp
      */
-    private long waitForNextMillis(long lastTimestamp) {
+    protected long waitForNextMillis(long lastTimestamp) {
+        long waitStart = System.nanoTime();
         long currentTimestamp = timestamp();
+        int spins = 0;
         while (currentTimestamp <= lastTimestamp) {
+            if (spins < MAX_SPINS) {
+                spins++;
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
             currentTimestamp = timestamp();
         }
+        stats.sequenceExhaustions.increment();
+        stats.sequenceExhaustionWaitNanos.add(System.nanoTime() - waitStart);
         return currentTimestamp;
     }
 
@@ -111,16 +446,17 @@ public class Snowflake {
      *
      * @return The current timestamp
      */
-    private long timestamp() {
-        return Instant.now().toEpochMilli();
+    protected long timestamp() {
+        return clock.millis();
     }
 
     /**
      * Create a node ID based on the MAC address or a random value if the MAC address is not available
      *
+     * @param maxNodeId The largest node ID of the layout
      * @return A node ID
      */
-    private long createNodeId() {
+    private static long createNodeId(long maxNodeId) {
         long nodeId;
         try {
             StringBuilder sb = new StringBuilder();
@@ -138,7 +474,7 @@ public class Snowflake {
         } catch (Exception ex) {
             nodeId = (new SecureRandom().nextInt());
         }
-        nodeId = nodeId & MAX_NODE_ID;
+        nodeId = nodeId & maxNodeId;
         return Math.abs(nodeId);
     }
 
@@ -146,10 +482,10 @@ public class Snowflake {
      * Extract the timestamp from a Snowflake ID
      *
      * @param id The Snowflake ID
-     * @return The timestamp in milliseconds since the custom epoch
+     * @return The timestamp in milliseconds since the Unix epoch
      */
     public long getTimestamp(long id) {
-        return ((id >> TIMESTAMP_SHIFT) + CUSTOM_EPOCH);
+        return layout.getTimestamp(id);
     }
 
     /**
@@ -159,7 +495,7 @@ public class Snowflake {
      * @return The node ID
      */
     public long getNodeId(long id) {
-        return (id >> NODE_ID_SHIFT) & MAX_NODE_ID;
+        return layout.getNodeId(id);
     }
 
     /**
@@ -169,6 +505,49 @@ public class Snowflake {
      * @return The sequence number
      */
     public long getSequence(long id) {
-        return id & MAX_SEQUENCE;
+        return layout.getSequence(id);
+    }
+
+    /**
+     * Get the smallest ID generated at the given instant by any node of this layout
+     *
+     * @param instant The instant
+     * @return The smallest Snowflake ID of that millisecond
+     * @see SnowflakeLayout#minIdAt(Instant)
+     */
+    public long minIdAt(Instant instant) {
+        return layout.minIdAt(instant);
+    }
+
+    /**
+     * Get the largest ID generated at the given instant by any node of this layout
+     *
+     * @param instant The instant
+     * @return The largest Snowflake ID of that millisecond
+     * @see SnowflakeLayout#maxIdAt(Instant)
+     */
+    public long maxIdAt(Instant instant) {
+        return layout.maxIdAt(instant);
+    }
+
+    /**
+     * @return The bit layout of IDs generated by this generator
+     */
+    public SnowflakeLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * @return The rollback policy of this generator
+     */
+    public ClockRollbackPolicy getRollbackPolicy() {
+        return rollbackPolicy;
+    }
+
+    /**
+     * @return The event counters of this generator
+     */
+    public SnowflakeStats getStats() {
+        return stats;
     }
 }
\ No newline at end of file
@@ -0,0 +1,216 @@
+package cloud.catfish.common.util;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-width string codec for Snowflake IDs
+ *
+ * JavaScript numbers lose precision above 2^53, so IDs leave the server as strings. These
+ * codecs write a non-negative long as a fixed number of digits whose alphabet is in ASCII
+ * order, so encoded IDs sort like the IDs themselves and are shorter than Long.toString:
+ * - BASE62: 0-9A-Za-z, 11 characters, case-sensitive
+ * - CROCKFORD_BASE32: 0-9A-Z without I, L, O and U, 13 characters; decoding ignores case
+ *   and reads I/L as 1 and O as 0
+ *
+ * The char[]/byte[] methods write into caller-supplied buffers and decode from them
+ * without allocating.
+ */
+public enum SnowflakeIdCodec {
+
+    BASE62("0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz", 11) {
+        @Override
+        public void encode(long id, char[] dst, int offset) {
+            checkEncodable(id, dst.length, offset);
+            for (int i = offset + width - 1; i >= offset; i--) {
+                dst[i] = digits[(int) (id % 62)];
+                id /= 62;
+            }
+        }
+
+        @Override
+        public void encode(long id, byte[] dst, int offset) {
+            checkEncodable(id, dst.length, offset);
+            for (int i = offset + width - 1; i >= offset; i--) {
+                dst[i] = (byte) digits[(int) (id % 62)];
+                id /= 62;
+            }
+        }
+    },
+
+    CROCKFORD_BASE32("0123456789ABCDEFGHJKMNPQRSTVWXYZ", 13) {
+        @Override
+        public void encode(long id, char[] dst, int offset) {
+            checkEncodable(id, dst.length, offset);
+            for (int i = offset + width - 1; i >= offset; i--) {
+                dst[i] = digits[(int) (id & 31)];
+                id >>>= 5;
+            }
+        }
+
+        @Override
+        public void encode(long id, byte[] dst, int offset) {
+            checkEncodable(id, dst.length, offset);
+            for (int i = offset + width - 1; i >= offset; i--) {
+                dst[i] = (byte) digits[(int) (id & 31)];
+                id >>>= 5;
+            }
+        }
+
+        @Override
+        void addAliases(byte[] values) {
+            for (int i = 0; i < digits.length; i++) {
+                values[Character.toLowerCase(digits[i])] = (byte) i;
+            }
+            values['I'] = values['i'] = values['L'] = values['l'] = 1;
+            values['O'] = values['o'] = 0;
+        }
+    };
+
+    /**
+     * Length of the longest encoding, enough for a buffer shared by all codecs
+     */
+    public static final int MAX_WIDTH = 13;
+
+    final char[] digits;
+    final int width;
+    private final int radix;
+    private final long maxBeforeMultiply;
+    // Digit value of every ASCII character, -1 if it is not a digit
+    private final byte[] values = new byte[128];
+
+    SnowflakeIdCodec(String alphabet, int width) {
+        this.digits = alphabet.toCharArray();
+        this.width = width;
+        this.radix = digits.length;
+        this.maxBeforeMultiply = Long.MAX_VALUE / radix;
+        Arrays.fill(values, (byte) -1);
+        for (int i = 0; i < digits.length; i++) {
+            values[digits[i]] = (byte) i;
+        }
+        addAliases(values);
+    }
+
+    /**
+     * Register additional characters accepted when decoding
+     *
+     * @param values Digit value of every ASCII character
+     */
+    void addAliases(byte[] values) {
+    }
+
+    /**
+     * Write the fixed-width encoding of an ID
+     *
+     * @param id     The Snowflake ID, not negative
+     * @param dst    The buffer to write {@link #width()} characters into
+     * @param offset Where to start writing
+     */
+    public abstract void encode(long id, char[] dst, int offset);
+
+    /**
+     * Write the fixed-width encoding of an ID as ASCII bytes
+     *
+     * @param id     The Snowflake ID, not negative
+     * @param dst    The buffer to write {@link #width()} bytes into
+     * @param offset Where to start writing
+     */
+    public abstract void encode(long id, byte[] dst, int offset);
+
+    /**
+     * Encode an ID into a new String
+     *
+     * @param id The Snowflake ID, not negative
+     * @return The fixed-width encoding
+     */
+    public String encode(long id) {
+        char[] chars = new char[width];
+        encode(id, chars, 0);
+        return new String(chars);
+    }
+
+    /**
+     * Decode an ID from a character buffer
+     *
+     * @param src    The buffer
+     * @param offset Where the encoding starts
+     * @param length The length of the encoding, which must be {@link #width()}
+     * @return The Snowflake ID
+     * @throws IllegalArgumentException if the characters are not a valid encoding
+     */
+    public long decode(char[] src, int offset, int length) {
+        checkDecodable(length);
+        long id = 0;
+        for (int i = offset; i < offset + length; i++) {
+            id = accumulate(id, src[i]);
+        }
+        return id;
+    }
+
+    /**
+     * Decode an ID from ASCII bytes
+     *
+     * @param src    The buffer
+     * @param offset Where the encoding starts
+     * @param length The length of the encoding, which must be {@link #width()}
+     * @return The Snowflake ID
+     * @throws IllegalArgumentException if the bytes are not a valid encoding
+     */
+    public long decode(byte[] src, int offset, int length) {
+        checkDecodable(length);
+        long id = 0;
+        for (int i = offset; i < offset + length; i++) {
+            id = accumulate(id, (char) (src[i] & 0xFF));
+        }
+        return id;
+    }
+
+    /**
+     * Decode an ID from a string
+     *
+     * @param encoded The fixed-width encoding
+     * @return The Snowflake ID
+     * @throws IllegalArgumentException if the string is not a valid encoding
+     */
+    public long decode(CharSequence encoded) {
+        checkDecodable(encoded.length());
+        long id = 0;
+        for (int i = 0; i < encoded.length(); i++) {
+            id = accumulate(id, encoded.charAt(i));
+        }
+        return id;
+    }
+
+    /**
+     * @return The number of characters of every encoded ID
+     */
+    public int width() {
+        return width;
+    }
+
+    private long accumulate(long id, char c) {
+        int value = c < 128 ? values[c] : -1;
+        if (value < 0) {
+            throw new IllegalArgumentException(String.format("Invalid %s character '%c'", name(), c));
+        }
+        if (id > maxBeforeMultiply || id * radix > Long.MAX_VALUE - value) {
+            throw new IllegalArgumentException(name() + " value does not fit into a Snowflake ID");
+        }
+        return id * radix + value;
+    }
+
+    void checkEncodable(long id, int capacity, int offset) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Snowflake ID must not be negative, got " + id);
+        }
+        if (offset < 0 || offset + width > capacity) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "%s needs %d characters at offset %d, buffer holds %d", name(), width, offset, capacity));
+        }
+    }
+
+    private void checkDecodable(int length) {
+        if (length != width) {
+            throw new IllegalArgumentException(String.format("%s IDs are %d characters long, got %d", name(), width, length));
+        }
+    }
+}
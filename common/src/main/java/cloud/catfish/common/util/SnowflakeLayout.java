@@ -0,0 +1,225 @@
+package cloud.catfish.common.util;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Bit layout of a Snowflake ID
+ *
+ * An ID is made of a timestamp (milliseconds since {@code epoch}), a node ID and a sequence
+ * number, whose widths add up to 63 bits so IDs are always positive longs:
+ *
+ * <pre>
+ *   | timestampBits | nodeIdBits | sequenceBits |
+ * </pre>
+ *
+ * Shifts and masks are computed once when the layout is created. Generators copy them into
+ * their own final fields, so generating and decoding an ID costs the same shifts and masks as
+ * with hardcoded constants.
+ */
+public final class SnowflakeLayout {
+
+    /**
+     * The classic layout: 41 bits timestamp, 10 bits node ID, 12 bits sequence,
+     * counting from January 1, 2015 Midnight UTC
+     */
+    public static final SnowflakeLayout DEFAULT = new SnowflakeLayout(41, 10, 12, 1420070400000L);
+
+    private static final int TOTAL_BITS = 63;
+
+    private final int timestampBits;
+    private final int nodeIdBits;
+    private final int sequenceBits;
+    private final long epoch;
+
+    // Precomputed shifts and masks
+    private final int nodeIdShift;
+    private final int timestampShift;
+    private final long maxTimestamp;
+    private final long maxNodeId;
+    private final long maxSequence;
+
+    /**
+     * Create a layout
+     *
+     * @param timestampBits Width of the timestamp part
+     * @param nodeIdBits    Width of the node ID part (1 or more)
+     * @param sequenceBits  Width of the sequence part (1 or more)
+     * @param epoch         Custom epoch in milliseconds since the Unix epoch
+     */
+    public SnowflakeLayout(int timestampBits, int nodeIdBits, int sequenceBits, long epoch) {
+        if (timestampBits < 1 || nodeIdBits < 1 || sequenceBits < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "Every part of the layout needs at least one bit, got %d/%d/%d", timestampBits, nodeIdBits, sequenceBits));
+        }
+        if (timestampBits + nodeIdBits + sequenceBits != TOTAL_BITS) {
+            throw new IllegalArgumentException(String.format(
+                    "Layout must use exactly %d bits, got %d/%d/%d", TOTAL_BITS, timestampBits, nodeIdBits, sequenceBits));
+        }
+        if (epoch < 0) {
+            throw new IllegalArgumentException("Epoch must not be negative, got " + epoch);
+        }
+        this.timestampBits = timestampBits;
+        this.nodeIdBits = nodeIdBits;
+        this.sequenceBits = sequenceBits;
+        this.epoch = epoch;
+        this.nodeIdShift = sequenceBits;
+        this.timestampShift = nodeIdBits + sequenceBits;
+        this.maxTimestamp = (1L << timestampBits) - 1;
+        this.maxNodeId = (1L << nodeIdBits) - 1;
+        this.maxSequence = (1L << sequenceBits) - 1;
+    }
+
+    /**
+     * Create a layout with the given node ID and sequence widths; the timestamp takes the rest
+     *
+     * @param nodeIdBits   Width of the node ID part
+     * @param sequenceBits Width of the sequence part
+     * @param epoch        Custom epoch in milliseconds since the Unix epoch
+     * @return The layout
+     */
+    public static SnowflakeLayout of(int nodeIdBits, int sequenceBits, long epoch) {
+        return new SnowflakeLayout(TOTAL_BITS - nodeIdBits - sequenceBits, nodeIdBits, sequenceBits, epoch);
+    }
+
+    /**
+     * Compose an ID from its parts
+     *
+     * @param timestamp Timestamp in milliseconds since the Unix epoch
+     * @param nodeId    The node ID
+     * @param sequence  The sequence number
+     * @return The Snowflake ID
+     */
+    public long compose(long timestamp, long nodeId, long sequence) {
+        return ((timestamp - epoch) << timestampShift) | (nodeId << nodeIdShift) | sequence;
+    }
+
+    /**
+     * Get the smallest ID any node can generate at the given instant, so that
+     * {@code id >= minIdAt(t)} selects the IDs generated at or after {@code t}
+     *
+     * @param instant The instant, truncated to milliseconds
+     * @return The smallest ID of that millisecond, 0 before the epoch or
+     * Long.MAX_VALUE after the last millisecond of the layout
+     */
+    public long minIdAt(Instant instant) {
+        long elapsed = instant.toEpochMilli() - epoch;
+        if (elapsed < 0) {
+            return 0L;
+        }
+        if (elapsed > maxTimestamp) {
+            return Long.MAX_VALUE;
+        }
+        return elapsed << timestampShift;
+    }
+
+    /**
+     * Get the largest ID any node can generate at the given instant, so that
+     * {@code id <= maxIdAt(t)} selects the IDs generated at or before {@code t}
+     *
+     * @param instant The instant, truncated to milliseconds
+     * @return The largest ID of that millisecond, -1 before the epoch or
+     * Long.MAX_VALUE after the last millisecond of the layout
+     */
+    public long maxIdAt(Instant instant) {
+        long elapsed = instant.toEpochMilli() - epoch;
+        if (elapsed < 0) {
+            return -1L;
+        }
+        if (elapsed > maxTimestamp) {
+            return Long.MAX_VALUE;
+        }
+        return (elapsed << timestampShift) | (maxNodeId << nodeIdShift) | maxSequence;
+    }
+
+    /**
+     * Extract the timestamp from a Snowflake ID
+     *
+     * @param id The Snowflake ID
+     * @return The timestamp in milliseconds since the Unix epoch
+     */
+    public long getTimestamp(long id) {
+        return (id >> timestampShift) + epoch;
+    }
+
+    /**
+     * Extract the node ID from a Snowflake ID
+     *
+     * @param id The Snowflake ID
+     * @return The node ID
+     */
+    public long getNodeId(long id) {
+        return (id >> nodeIdShift) & maxNodeId;
+    }
+
+    /**
+     * Extract the sequence number from a Snowflake ID
+     *
+     * @param id The Snowflake ID
+     * @return The sequence number
+     */
+    public long getSequence(long id) {
+        return id & maxSequence;
+    }
+
+    public int getTimestampBits() {
+        return timestampBits;
+    }
+
+    public int getNodeIdBits() {
+        return nodeIdBits;
+    }
+
+    public int getSequenceBits() {
+        return sequenceBits;
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public int getNodeIdShift() {
+        return nodeIdShift;
+    }
+
+    public int getTimestampShift() {
+        return timestampShift;
+    }
+
+    public long getMaxTimestamp() {
+        return maxTimestamp;
+    }
+
+    public long getMaxNodeId() {
+        return maxNodeId;
+    }
+
+    public long getMaxSequence() {
+        return maxSequence;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SnowflakeLayout)) {
+            return false;
+        }
+        SnowflakeLayout that = (SnowflakeLayout) o;
+        return timestampBits == that.timestampBits
+                && nodeIdBits == that.nodeIdBits
+                && sequenceBits == that.sequenceBits
+                && epoch == that.epoch;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(timestampBits, nodeIdBits, sequenceBits, epoch);
+    }
+
+    @Override
+    public String toString() {
+        return "SnowflakeLayout{" + timestampBits + "/" + nodeIdBits + "/" + sequenceBits + ", epoch=" + epoch + "}";
+    }
+}
@@ -0,0 +1,123 @@
+package cloud.catfish.common.util;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A block of Snowflake IDs reserved in one go
+ *
+ * Returned by {@link Snowflake#reserveRange(int)}. The reserved sequence slots may span
+ * several milliseconds; within one millisecond they are contiguous, so the range is
+ * stored as a handful of (first ID, count) segments instead of one long per ID.
+ *
+ * IDs are handed out in ascending order through {@link #nextId()}. A range is meant to be
+ * consumed by a single thread (e.g. one batch insert) and is not thread-safe.
+ */
+public class SnowflakeRange {
+
+    private long[] segmentStarts = new long[2];
+    private int[] segmentCounts = new int[2];
+    private int segments;
+    private int size;
+
+    // Cursor used by nextId()
+    private int segmentCursor;
+    private int offsetCursor;
+    private int consumed;
+
+    SnowflakeRange() {
+    }
+
+    /**
+     * Append a segment of contiguous IDs
+     *
+     * @param firstId The first ID of the segment
+     * @param count   The number of IDs in the segment
+     */
+    void addSegment(long firstId, int count) {
+        if (segments == segmentStarts.length) {
+            segmentStarts = Arrays.copyOf(segmentStarts, segments * 2);
+            segmentCounts = Arrays.copyOf(segmentCounts, segments * 2);
+        }
+        segmentStarts[segments] = firstId;
+        segmentCounts[segments] = count;
+        segments++;
+        size += count;
+    }
+
+    /**
+     * @return The total number of IDs in this range
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The number of IDs not yet handed out by {@link #nextId()}
+     */
+    public int remaining() {
+        return size - consumed;
+    }
+
+    /**
+     * @return true if {@link #nextId()} can hand out another ID
+     */
+    public boolean hasNext() {
+        return consumed < size;
+    }
+
+    /**
+     * Take the next ID of this range
+     *
+     * @return The next reserved Snowflake ID
+     * @throws NoSuchElementException if the range is exhausted
+     */
+    public long nextId() {
+        if (consumed >= size) {
+            throw new NoSuchElementException("Snowflake range of " + size + " IDs is exhausted");
+        }
+        long id = segmentStarts[segmentCursor] + offsetCursor;
+        if (++offsetCursor == segmentCounts[segmentCursor]) {
+            segmentCursor++;
+            offsetCursor = 0;
+        }
+        consumed++;
+        return id;
+    }
+
+    /**
+     * Get the ID at the given position without moving the cursor
+     *
+     * @param index Position in the range (0 to size - 1)
+     * @return The Snowflake ID at that position
+     */
+    public long get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of range of " + size + " IDs");
+        }
+        for (int i = 0; i < segments; i++) {
+            if (index < segmentCounts[i]) {
+                return segmentStarts[i] + index;
+            }
+            index -= segmentCounts[i];
+        }
+        throw new IllegalStateException("Corrupted Snowflake range");
+    }
+
+    /**
+     * Materialize all IDs of this range in ascending order
+     *
+     * @return A new array holding every reserved ID
+     */
+    public long[] toArray() {
+        long[] ids = new long[size];
+        int pos = 0;
+        for (int i = 0; i < segments; i++) {
+            long start = segmentStarts[i];
+            for (int k = 0; k < segmentCounts[i]; k++) {
+                ids[pos++] = start + k;
+            }
+        }
+        return ids;
+    }
+}
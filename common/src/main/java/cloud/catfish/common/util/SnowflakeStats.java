@@ -0,0 +1,85 @@
+package cloud.catfish.common.util;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters describing how often a {@link Snowflake} generator had to deal with
+ * unusual conditions. Counters are striped {@link LongAdder}s, so recording an
+ * event never becomes a contention point of its own.
+ */
+public class SnowflakeStats {
+
+    final LongAdder generatedIds = new LongAdder();
+    final LongAdder contentions = new LongAdder();
+    final LongAdder clockRollbacks = new LongAdder();
+    final LongAdder rollbackBorrows = new LongAdder();
+    final LongAdder rollbackWaits = new LongAdder();
+    final LongAdder rollbackBackupSwitches = new LongAdder();
+    final LongAdder rollbackFailures = new LongAdder();
+    final LongAdder sequenceExhaustions = new LongAdder();
+    final LongAdder sequenceExhaustionWaitNanos = new LongAdder();
+
+    /**
+     * @return The number of IDs generated, including IDs handed out as ranges
+     */
+    public long getGeneratedIds() {
+        return generatedIds.sum();
+    }
+
+    /**
+     * @return The number of times a caller lost a compare-and-set race or found the lock held
+     */
+    public long getContentions() {
+        return contentions.sum();
+    }
+
+    /**
+     * @return The number of clock regressions, each counted once from the moment the clock is first
+     *         seen behind the last timestamp until it catches up again
+     */
+    public long getClockRollbacks() {
+        return clockRollbacks.sum();
+    }
+
+    /**
+     * @return The number of regressions absorbed by issuing IDs from a borrowed (logical) timestamp
+     */
+    public long getRollbackBorrows() {
+        return rollbackBorrows.sum();
+    }
+
+    /**
+     * @return The number of regressions absorbed by waiting for the clock to catch up
+     */
+    public long getRollbackWaits() {
+        return rollbackWaits.sum();
+    }
+
+    /**
+     * @return The number of regressions absorbed by issuing IDs under the backup node-ID bit
+     */
+    public long getRollbackBackupSwitches() {
+        return rollbackBackupSwitches.sum();
+    }
+
+    /**
+     * @return The number of regressions that could not be absorbed and made callers fail
+     */
+    public long getRollbackFailures() {
+        return rollbackFailures.sum();
+    }
+
+    /**
+     * @return The number of times a millisecond's sequence numbers ran out, forcing a wait
+     */
+    public long getSequenceExhaustions() {
+        return sequenceExhaustions.sum();
+    }
+
+    /**
+     * @return The total time spent waiting for the next millisecond after an exhaustion, in nanoseconds
+     */
+    public long getSequenceExhaustionWaitNanos() {
+        return sequenceExhaustionWaitNanos.sum();
+    }
+}
@@ -1,26 +1,177 @@
 package cloud.catfish.common.util;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
 /**
  * Snowflake ID Utility
  * A wrapper around the Twitter Snowflake algorithm implementation that provides
  * a simplified interface for generating Snowflake IDs.
+ *
+ * The generator engine is chosen with system properties:
+ * - snowflake.engine: synchronized (default), lock-free or striped
+ * - snowflake.stripe-bits: low node-ID bits given to stripes by the striped engine (default 2)
+ * - snowflake.clock: instant, system (default) or cached
+ * - snowflake.rollback: fail (default), borrow, wait or backup-node
+ * - snowflake.max-rollback-ms: largest clock regression absorbed before failing (default 10)
+ * - snowflake.node-bits: width of the node ID (default 10)
+ * - snowflake.sequence-bits: width of the sequence number (default 12)
+ * - snowflake.epoch: custom epoch in milliseconds (default 1420070400000, 2015-01-01T00:00:00Z)
+ * - snowflake.node-id: node ID used by the methods without a node ID argument (default 1)
+ * - snowflake.prefetch-capacity: when positive, nextId() takes IDs of the default node from a
+ *   {@link PrefetchingIdSource} of this capacity (default 0, disabled)
+ * - snowflake.prefetch-max-age-ms: how long a prefetched ID may wait before it is discarded (default 5)
+ *
+ * Generators are kept in a registry with one slot per node ID, so every call for the same
+ * node ID reuses the same generator and its lastTimestamp/sequence state.
+ *
+ * Instances sharing one ID space should lease their default node ID through a
+ * {@link NodeIdAllocator} at startup, see {@link #useNodeIdAllocator(NodeIdAllocator)}.
+ * The lease is checked before every default-node ID; once it is lost the node ID is
+ * leased again, and IDs fail to generate until a new lease is obtained.
  */
 public class SnowflakeUtil {
     
-    private static final int DEFAULT_NODE_ID = 1;
-    private static volatile Snowflake defaultGenerator = null;
+    private static final String NODE_ID_PROPERTY = "snowflake.node-id";
+
+    // Node ID used when the caller does not pass one, replaced by a leased one at startup
+    private static volatile int defaultNodeId = Integer.getInteger(NODE_ID_PROPERTY, 1);
+
+    // Allocator holding the lease of the default node ID, if any
+    private static volatile NodeIdAllocator nodeIdAllocator;
+
+    // Prefetching of default-node IDs
+    private static final String PREFETCH_CAPACITY_PROPERTY = "snowflake.prefetch-capacity";
+    private static final int PREFETCH_CAPACITY = Integer.getInteger(PREFETCH_CAPACITY_PROPERTY, 0);
+    private static final String PREFETCH_MAX_AGE_PROPERTY = "snowflake.prefetch-max-age-ms";
+    private static final long PREFETCH_MAX_AGE_MS = Long.getLong(PREFETCH_MAX_AGE_PROPERTY, PrefetchingIdSource.DEFAULT_MAX_AGE_MILLIS);
+    private static volatile PrefetchingIdSource prefetchSource;
+
+    // Layout configuration
+    private static final String NODE_BITS_PROPERTY = "snowflake.node-bits";
+    private static final String SEQUENCE_BITS_PROPERTY = "snowflake.sequence-bits";
+    private static final String EPOCH_PROPERTY = "snowflake.epoch";
+
+    // Bit layout shared by every generator of the registry
+    private static final SnowflakeLayout LAYOUT = createLayout();
+
+    // One lazily-initialised generator per node ID (0-1023 with the default layout)
+    private static final AtomicReferenceArray<Snowflake> GENERATORS =
+            new AtomicReferenceArray<>((int) LAYOUT.getMaxNodeId() + 1);
+
+    // Engine configuration
+    private static final String ENGINE_PROPERTY = "snowflake.engine";
+    private static final String STRIPE_BITS_PROPERTY = "snowflake.stripe-bits";
+    private static final String ENGINE_SYNCHRONIZED = "synchronized";
+    private static final String ENGINE_LOCK_FREE = "lock-free";
+    private static final String ENGINE_STRIPED = "striped";
+    private static final int DEFAULT_STRIPE_BITS = 2;
+
+    // Clock configuration
+    private static final String CLOCK_PROPERTY = "snowflake.clock";
+    private static final String CLOCK_INSTANT = "instant";
+    private static final String CLOCK_SYSTEM = "system";
+    private static final String CLOCK_CACHED = "cached";
+
+    // Clock rollback configuration
+    private static final String ROLLBACK_PROPERTY = "snowflake.rollback";
+    private static final String MAX_ROLLBACK_PROPERTY = "snowflake.max-rollback-ms";
+    private static final String ROLLBACK_FAIL = "fail";
+    private static final String ROLLBACK_BORROW = "borrow";
+    private static final String ROLLBACK_WAIT = "wait";
+    private static final String ROLLBACK_BACKUP_NODE = "backup-node";
+    private static final long DEFAULT_MAX_ROLLBACK_MS = 10L;
     
     private SnowflakeUtil() {
         // Private constructor to prevent instantiation
     }
     
     /**
-     * Get a Snowflake ID generator with the default node ID (1)
+     * Get a Snowflake ID generator with the default node ID
      * 
      * @return A Snowflake ID generator
      */
     public static Snowflake getGenerator() {
-        return getGenerator(DEFAULT_NODE_ID);
+        NodeIdAllocator allocator = nodeIdAllocator;
+        if (allocator != null && !allocator.isLeaseValid()) {
+            renewLease(allocator);
+        }
+        return getGenerator(defaultNodeId);
+    }
+
+    /**
+     * Lease a node ID from the allocator and make it the default node ID
+     *
+     * @param allocator The allocator to lease from; the caller closes it on shutdown
+     * @return The leased node ID
+     */
+    public static synchronized int useNodeIdAllocator(NodeIdAllocator allocator) {
+        int nodeId = (int) allocator.acquire(getMaxLeasableNodeId());
+        defaultNodeId = nodeId;
+        nodeIdAllocator = allocator;
+        return nodeId;
+    }
+
+    /**
+     * Stop using the node-ID allocator and go back to the configured default node ID,
+     * for tests that install an allocator
+     */
+    static synchronized void resetNodeIdAllocator() {
+        PrefetchingIdSource source = prefetchSource;
+        if (source != null) {
+            source.close();
+            prefetchSource = null;
+        }
+        nodeIdAllocator = null;
+        defaultNodeId = Integer.getInteger(NODE_ID_PROPERTY, 1);
+    }
+
+    /**
+     * Give up a lost lease and lease a node ID again, so no ID is generated under a
+     * node ID that another instance may hold by now
+     *
+     * @param allocator The allocator whose lease was lost
+     * @throws IllegalStateException if no node ID can be leased
+     */
+    private static synchronized void renewLease(NodeIdAllocator allocator) {
+        if (nodeIdAllocator != allocator || allocator.isLeaseValid()) {
+            // Another thread renewed the lease first
+            return;
+        }
+        // IDs prefetched under the lost lease are dropped together with their source
+        PrefetchingIdSource source = prefetchSource;
+        if (source != null) {
+            source.close();
+            prefetchSource = null;
+        }
+        allocator.close();
+        defaultNodeId = (int) allocator.acquire(getMaxLeasableNodeId());
+    }
+
+    /**
+     * Get the largest node ID the configured engine and rollback policy accept: the striped
+     * engine keeps the low stripe bits for itself and the backup-node policy reserves the
+     * highest node-ID bit
+     *
+     * @return The largest node ID to lease
+     */
+    static long getMaxLeasableNodeId() {
+        long maxNodeId = LAYOUT.getMaxNodeId();
+        if (ROLLBACK_BACKUP_NODE.equals(System.getProperty(ROLLBACK_PROPERTY, ROLLBACK_FAIL))) {
+            maxNodeId >>= 1;
+        }
+        if (ENGINE_STRIPED.equals(System.getProperty(ENGINE_PROPERTY, ENGINE_SYNCHRONIZED))) {
+            maxNodeId >>= Integer.getInteger(STRIPE_BITS_PROPERTY, DEFAULT_STRIPE_BITS);
+        }
+        return maxNodeId;
+    }
+
+    /**
+     * @return The node ID used by the methods without a node ID argument
+     */
+    public static int getDefaultNodeId() {
+        return defaultNodeId;
     }
     
     /**
@@ -30,26 +181,160 @@ public class SnowflakeUtil {
      * @return A Snowflake ID generator
      */
     public static Snowflake getGenerator(int nodeId) {
-        if (nodeId == DEFAULT_NODE_ID && defaultGenerator != null) {
-            return defaultGenerator;
+        if (nodeId < 0 || nodeId > LAYOUT.getMaxNodeId()) {
+            throw new IllegalArgumentException(String.format("NodeId must be between 0 and %d", LAYOUT.getMaxNodeId()));
         }
         
-        Snowflake generator = new Snowflake(nodeId);
-        
-        if (nodeId == DEFAULT_NODE_ID) {
-            defaultGenerator = generator;
+        Snowflake generator = GENERATORS.get(nodeId);
+        if (generator != null) {
+            return generator;
         }
         
-        return generator;
+        // First use of this node ID: publish exactly one generator, losers adopt the winner's
+        Snowflake created = createGenerator(nodeId);
+        if (GENERATORS.compareAndSet(nodeId, null, created)) {
+            return created;
+        }
+        return GENERATORS.get(nodeId);
+    }
+
+    /**
+     * Get the generators created so far, e.g. to report their {@link SnowflakeStats}
+     *
+     * @return The generators of every node ID used since startup
+     */
+    public static List<Snowflake> getGenerators() {
+        List<Snowflake> generators = new ArrayList<>();
+        for (int i = 0; i < GENERATORS.length(); i++) {
+            Snowflake generator = GENERATORS.get(i);
+            if (generator != null) {
+                generators.add(generator);
+            }
+        }
+        return generators;
     }
     
     /**
-     * Generate a new Snowflake ID using the default node ID (1)
+     * Create a generator for the given node ID using the configured engine
+     *
+     * @param nodeId The node ID
+     * @return A new Snowflake ID generator
+     */
+    private static Snowflake createGenerator(int nodeId) {
+        ClockSource clock = createClock();
+        ClockRollbackPolicy rollbackPolicy = createRollbackPolicy();
+        String engine = System.getProperty(ENGINE_PROPERTY, ENGINE_SYNCHRONIZED);
+        switch (engine) {
+            case ENGINE_SYNCHRONIZED:
+                return new Snowflake(LAYOUT, nodeId, clock, rollbackPolicy);
+            case ENGINE_LOCK_FREE:
+                return new LockFreeSnowflake(LAYOUT, nodeId, clock, rollbackPolicy);
+            case ENGINE_STRIPED:
+                return new StripedSnowflake(LAYOUT, nodeId, Integer.getInteger(STRIPE_BITS_PROPERTY, DEFAULT_STRIPE_BITS),
+                        clock, rollbackPolicy);
+            default:
+                throw new IllegalArgumentException("Unknown " + ENGINE_PROPERTY + ": " + engine);
+        }
+    }
+
+    /**
+     * Create the configured bit layout
+     *
+     * @return The layout used by every generator
+     */
+    private static SnowflakeLayout createLayout() {
+        SnowflakeLayout defaults = SnowflakeLayout.DEFAULT;
+        return SnowflakeLayout.of(
+                Integer.getInteger(NODE_BITS_PROPERTY, defaults.getNodeIdBits()),
+                Integer.getInteger(SEQUENCE_BITS_PROPERTY, defaults.getSequenceBits()),
+                Long.getLong(EPOCH_PROPERTY, defaults.getEpoch()));
+    }
+
+    /**
+     * @return The bit layout of IDs generated through this utility
+     */
+    public static SnowflakeLayout getLayout() {
+        return LAYOUT;
+    }
+
+    /**
+     * Create the configured clock source
+     *
+     * @return The clock used by new generators
+     */
+    private static ClockSource createClock() {
+        String clock = System.getProperty(CLOCK_PROPERTY, CLOCK_SYSTEM);
+        switch (clock) {
+            case CLOCK_INSTANT:
+                return ClockSource.instant();
+            case CLOCK_SYSTEM:
+                return ClockSource.system();
+            case CLOCK_CACHED:
+                return CachedClockSource.getInstance();
+            default:
+                throw new IllegalArgumentException("Unknown " + CLOCK_PROPERTY + ": " + clock);
+        }
+    }
+
+    /**
+     * Create the configured clock rollback policy
+     *
+     * @return The rollback policy used by new generators
+     */
+    private static ClockRollbackPolicy createRollbackPolicy() {
+        String rollback = System.getProperty(ROLLBACK_PROPERTY, ROLLBACK_FAIL);
+        long maxRollbackMillis = Long.getLong(MAX_ROLLBACK_PROPERTY, DEFAULT_MAX_ROLLBACK_MS);
+        switch (rollback) {
+            case ROLLBACK_FAIL:
+                return ClockRollbackPolicy.fail();
+            case ROLLBACK_BORROW:
+                return ClockRollbackPolicy.borrow(maxRollbackMillis);
+            case ROLLBACK_WAIT:
+                return ClockRollbackPolicy.waitUpTo(maxRollbackMillis);
+            case ROLLBACK_BACKUP_NODE:
+                return ClockRollbackPolicy.backupNode(maxRollbackMillis);
+            default:
+                throw new IllegalArgumentException("Unknown " + ROLLBACK_PROPERTY + ": " + rollback);
+        }
+    }
+    
+    /**
+     * Generate a new Snowflake ID using the default node ID, taken from the
+     * prefetch buffer when snowflake.prefetch-capacity is set
      * 
      * @return A new Snowflake ID
      */
     public static long nextId() {
-        return nextId(DEFAULT_NODE_ID);
+        if (PREFETCH_CAPACITY > 0) {
+            return getPrefetchingSource().nextId();
+        }
+        return getGenerator().nextId();
+    }
+
+    /**
+     * Get the prefetching source of the default generator, replacing it when
+     * the default node ID has changed since it was created
+     *
+     * @return The prefetching ID source
+     */
+    private static PrefetchingIdSource getPrefetchingSource() {
+        Snowflake generator = getGenerator();
+        PrefetchingIdSource source = prefetchSource;
+        if (source != null && source.getGenerator() == generator) {
+            return source;
+        }
+        synchronized (SnowflakeUtil.class) {
+            source = prefetchSource;
+            if (source == null || source.getGenerator() != generator) {
+                if (source != null) {
+                    source.close();
+                }
+                source = new PrefetchingIdSource(generator, PREFETCH_CAPACITY, Math.max(1, PREFETCH_CAPACITY / 4),
+                        PREFETCH_MAX_AGE_MS);
+                prefetchSource = source;
+            }
+            return source;
+        }
     }
     
     /**
@@ -61,4 +346,46 @@ public class SnowflakeUtil {
     public static long nextId(int nodeId) {
         return getGenerator(nodeId).nextId();
     }
+
+    /**
+     * Generate a batch of Snowflake IDs using the default node ID
+     *
+     * @param n The number of IDs to generate
+     * @return The generated IDs in ascending order
+     */
+    public static long[] nextIds(int n) {
+        return getGenerator().nextIds(n);
+    }
+
+    /**
+     * Generate a batch of Snowflake IDs using the specified node ID
+     *
+     * @param nodeId The node ID (0-1023)
+     * @param n The number of IDs to generate
+     * @return The generated IDs in ascending order
+     */
+    public static long[] nextIds(int nodeId, int n) {
+        return getGenerator(nodeId).nextIds(n);
+    }
+
+    /**
+     * Reserve a block of Snowflake IDs using the default node ID
+     *
+     * @param n The number of IDs to reserve
+     * @return The reserved range
+     */
+    public static SnowflakeRange reserveRange(int n) {
+        return getGenerator().reserveRange(n);
+    }
+
+    /**
+     * Reserve a block of Snowflake IDs using the specified node ID
+     *
+     * @param nodeId The node ID (0-1023)
+     * @param n The number of IDs to reserve
+     * @return The reserved range
+     */
+    public static SnowflakeRange reserveRange(int nodeId, int n) {
+        return getGenerator(nodeId).reserveRange(n);
+    }
 }
\ No newline at end of file
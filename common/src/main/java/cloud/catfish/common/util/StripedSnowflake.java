@@ -0,0 +1,160 @@
+package cloud.catfish.common.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Striped Snowflake ID Generator
+ *
+ * Even a lock-free generator serializes every caller on one cache line. This generator
+ * carves the low {@code stripeBits} of the node ID into 2^stripeBits independent
+ * {@link LockFreeSnowflake} stripes, so with the default layout IDs look like:
+ *
+ * <pre>
+ *   | 41 bits timestamp | (10 - stripeBits) bits node ID | stripeBits bits stripe | 12 bits sequence |
+ * </pre>
+ *
+ * Threads are mapped to a stripe by a per-thread probe hash and move to another stripe
+ * when they lose a CAS, the same way {@link java.util.concurrent.atomic.LongAdder} spreads
+ * its cells. Every stripe owns a distinct node ID, so IDs stay globally unique for one
+ * logical node ID. They are strictly increasing per stripe and time-ordered overall,
+ * but two IDs from different stripes in the same millisecond are not ordered by call time.
+ */
+public class StripedSnowflake extends Snowflake {
+
+    // Seed for per-thread probes, spaced by the golden ratio like ThreadLocalRandom
+    private static final int PROBE_INCREMENT = 0x9e3779b9;
+    private static final AtomicInteger PROBE_SEED = new AtomicInteger();
+    private static final ThreadLocal<int[]> PROBE = ThreadLocal.withInitial(() -> {
+        int probe = PROBE_SEED.addAndGet(PROBE_INCREMENT);
+        return new int[]{probe == 0 ? 1 : probe};
+    });
+
+    private final int stripeBits;
+    private final int stripeMask;
+    private final LockFreeSnowflake[] stripes;
+
+    /**
+     * Create a striped Snowflake ID generator
+     *
+     * @param nodeId     The logical node ID (0 to 2^(10 - stripeBits) - 1)
+     * @param stripeBits The number of low node-ID bits used to address stripes (0-9)
+     */
+    public StripedSnowflake(long nodeId, int stripeBits) {
+        this(nodeId, stripeBits, ClockSource.system());
+    }
+
+    /**
+     * Create a striped Snowflake ID generator with the given clock
+     *
+     * @param nodeId     The logical node ID (0 to 2^(10 - stripeBits) - 1)
+     * @param stripeBits The number of low node-ID bits used to address stripes (0-9)
+     * @param clock      The clock shared by all stripes
+     */
+    public StripedSnowflake(long nodeId, int stripeBits, ClockSource clock) {
+        this(nodeId, stripeBits, clock, ClockRollbackPolicy.fail());
+    }
+
+    /**
+     * Create a striped Snowflake ID generator with the given clock and rollback policy
+     *
+     * @param nodeId         The logical node ID (0 to 2^(10 - stripeBits) - 1, halved with a backup-node policy)
+     * @param stripeBits     The number of low node-ID bits used to address stripes (0-9)
+     * @param clock          The clock shared by all stripes
+     * @param rollbackPolicy How every stripe reacts when the clock moves backwards
+     */
+    public StripedSnowflake(long nodeId, int stripeBits, ClockSource clock, ClockRollbackPolicy rollbackPolicy) {
+        this(SnowflakeLayout.DEFAULT, nodeId, stripeBits, clock, rollbackPolicy);
+    }
+
+    /**
+     * Create a striped Snowflake ID generator with a custom bit layout
+     *
+     * @param layout         The bit layout of generated IDs
+     * @param nodeId         The logical node ID (0 to 2^(nodeIdBits - stripeBits) - 1, halved with a backup-node policy)
+     * @param stripeBits     The number of low node-ID bits used to address stripes (0 to nodeIdBits - 1)
+     * @param clock          The clock shared by all stripes
+     * @param rollbackPolicy How every stripe reacts when the clock moves backwards
+     */
+    public StripedSnowflake(SnowflakeLayout layout, long nodeId, int stripeBits, ClockSource clock, ClockRollbackPolicy rollbackPolicy) {
+        super(layout, checkedBaseNodeId(layout, nodeId, stripeBits), clock, rollbackPolicy);
+        this.stripeBits = stripeBits;
+        this.stripeMask = (1 << stripeBits) - 1;
+        this.stripes = new LockFreeSnowflake[1 << stripeBits];
+        for (int i = 0; i < stripes.length; i++) {
+            // Stripes record into this generator's counters so getStats() covers all of them,
+            // and share its rollback episode so one regression is counted once, not per stripe
+            stripes[i] = new LockFreeSnowflake(layout, this.nodeId | i, clock, rollbackPolicy, stats, rollbackEpisode);
+        }
+    }
+
+    private static long checkedBaseNodeId(SnowflakeLayout layout, long nodeId, int stripeBits) {
+        if (layout == null) {
+            throw new IllegalArgumentException("Snowflake layout must not be null");
+        }
+        if (stripeBits < 0 || stripeBits >= layout.getNodeIdBits()) {
+            throw new IllegalArgumentException(String.format("StripeBits must be between 0 and %d", layout.getNodeIdBits() - 1));
+        }
+        long maxLogicalNodeId = layout.getMaxNodeId() >> stripeBits;
+        if (nodeId < 0 || nodeId > maxLogicalNodeId) {
+            throw new IllegalArgumentException(String.format("NodeId must be between 0 and %d", maxLogicalNodeId));
+        }
+        return nodeId << stripeBits;
+    }
+
+    /**
+     * Generate a new Snowflake ID from the calling thread's stripe
+     *
+     * @return A new Snowflake ID
+     */
+    @Override
+    public long nextId() {
+        int[] probe = PROBE.get();
+        for (;;) {
+            long id = stripes[probe[0] & stripeMask].tryNextId();
+            if (id != LockFreeSnowflake.CONTENDED) {
+                stats.generatedIds.increment();
+                return id;
+            }
+            stats.contentions.increment();
+            probe[0] = advanceProbe(probe[0]);
+        }
+    }
+
+    /**
+     * Reserve a block of IDs from the calling thread's stripe
+     *
+     * @param n The number of IDs to reserve
+     * @return The reserved range
+     */
+    @Override
+    public SnowflakeRange reserveRange(int n) {
+        return stripes[PROBE.get()[0] & stripeMask].reserveRange(n);
+    }
+
+    /**
+     * @return The number of low node-ID bits used to address stripes
+     */
+    public int getStripeBits() {
+        return stripeBits;
+    }
+
+    /**
+     * Extract the stripe index from a Snowflake ID
+     *
+     * @param id The Snowflake ID
+     * @return The stripe that generated the ID
+     */
+    public long getStripe(long id) {
+        return getNodeId(id) & stripeMask;
+    }
+
+    /**
+     * Marsaglia xorshift, as used by LongAdder to move a contended thread to another cell
+     */
+    private static int advanceProbe(int probe) {
+        probe ^= probe << 13;
+        probe ^= probe >>> 17;
+        probe ^= probe << 5;
+        return probe;
+    }
+}
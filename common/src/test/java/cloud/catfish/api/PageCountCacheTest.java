@@ -0,0 +1,44 @@
+package cloud.catfish.api;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * A total counted before a concurrent invalidation must not be cached.
+ */
+class PageCountCacheTest {
+
+    private final PageCountCache cache = new PageCountCache(60_000, 100);
+
+    @Test
+    void totalCountedBeforeInvalidationIsDiscarded() {
+        String key = PageCountCache.key(String.class, null);
+        long generation = cache.generation(String.class);
+        // A write commits while the count is running
+        cache.invalidate(String.class);
+        cache.put(key, 10, String.class, generation);
+
+        assertNull(cache.get(key));
+    }
+
+    @Test
+    void totalCountedAfterInvalidationIsCached() {
+        String key = PageCountCache.key(String.class, null);
+        cache.invalidate(String.class);
+        cache.put(key, 10, String.class, cache.generation(String.class));
+
+        assertEquals(10L, cache.get(key));
+    }
+
+    @Test
+    void invalidationIsPerType() {
+        String key = PageCountCache.key(String.class, null);
+        long generation = cache.generation(String.class);
+        cache.invalidate(Integer.class);
+        cache.put(key, 10, String.class, generation);
+
+        assertEquals(10L, cache.get(key));
+    }
+}
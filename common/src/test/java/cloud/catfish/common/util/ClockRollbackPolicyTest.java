@@ -0,0 +1,93 @@
+package cloud.catfish.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Rollback counters must count regressions, not the IDs issued while the clock is behind.
+ */
+class ClockRollbackPolicyTest {
+
+    private static final long START = SnowflakeLayout.DEFAULT.getEpoch() + 1_000_000L;
+
+    private final AtomicLong now = new AtomicLong(START);
+    private final ClockSource clock = now::get;
+
+    @Test
+    void borrowCountsOneRollbackPerRegression() {
+        assertOneRollbackPerRegression(new Snowflake(1, clock, ClockRollbackPolicy.borrow(1_000)));
+        now.set(START);
+        assertOneRollbackPerRegression(new LockFreeSnowflake(1, clock, ClockRollbackPolicy.borrow(1_000)));
+    }
+
+    @Test
+    void backupNodeCountsOneRollbackPerRegression() {
+        assertOneRollbackPerRegression(new Snowflake(1, clock, ClockRollbackPolicy.backupNode(1_000)));
+        now.set(START);
+        assertOneRollbackPerRegression(new LockFreeSnowflake(1, clock, ClockRollbackPolicy.backupNode(1_000)));
+    }
+
+    @Test
+    void stripedCountsOneRollbackPerRegression() throws InterruptedException {
+        StripedSnowflake snowflake = new StripedSnowflake(1, 3, clock, ClockRollbackPolicy.borrow(1_000));
+        for (int regression = 1; regression <= 3; regression++) {
+            // Every stripe issues IDs before and during the regression
+            nextIdOnEveryStripe(snowflake);
+            now.addAndGet(-10);
+            nextIdOnEveryStripe(snowflake);
+            now.addAndGet(20);
+            nextIdOnEveryStripe(snowflake);
+            assertEquals(regression, snowflake.getStats().getClockRollbacks());
+        }
+    }
+
+    @Test
+    void failCountsOneFailurePerRegression() {
+        Snowflake snowflake = new LockFreeSnowflake(1, clock, ClockRollbackPolicy.fail());
+        snowflake.nextId();
+        now.addAndGet(-10);
+        for (int i = 0; i < 100; i++) {
+            assertThrows(IllegalStateException.class, snowflake::nextId);
+        }
+        assertEquals(1, snowflake.getStats().getClockRollbacks());
+        assertEquals(1, snowflake.getStats().getRollbackFailures());
+    }
+
+    private static void nextIdOnEveryStripe(StripedSnowflake snowflake) throws InterruptedException {
+        Set<Long> stripes = new HashSet<>();
+        while (stripes.size() < 1 << snowflake.getStripeBits()) {
+            // Threads start on different stripes, each one generating a few IDs
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10; i++) {
+                    long id = snowflake.nextId();
+                    synchronized (stripes) {
+                        stripes.add(snowflake.getStripe(id));
+                    }
+                }
+            });
+            thread.start();
+            thread.join();
+        }
+    }
+
+    private void assertOneRollbackPerRegression(Snowflake snowflake) {
+        for (int regression = 1; regression <= 3; regression++) {
+            snowflake.nextId();
+            now.addAndGet(-10);
+            for (int i = 0; i < 100; i++) {
+                snowflake.nextId();
+            }
+            // Catch up with the clock before the next regression
+            now.addAndGet(20);
+            snowflake.nextId();
+            assertEquals(regression, snowflake.getStats().getClockRollbacks());
+        }
+        assertEquals(0, snowflake.getStats().getRollbackFailures());
+    }
+}
@@ -0,0 +1,174 @@
+package cloud.catfish.common.util;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Lease, expiry and takeover of node IDs against an in-memory H2 database.
+ */
+class JdbcNodeIdAllocatorTest {
+
+    private static final String TABLE = JdbcNodeIdAllocator.DEFAULT_TABLE;
+
+    private JdbcDataSource dataSource;
+    private final List<JdbcNodeIdAllocator> allocators = new ArrayList<>();
+
+    @BeforeEach
+    void createDatabase() {
+        dataSource = new JdbcDataSource();
+        // One database per test, kept open between connections
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+    }
+
+    @AfterEach
+    void closeAllocators() throws SQLException {
+        // Leave no closed allocator behind in the static registry
+        SnowflakeUtil.resetNodeIdAllocator();
+        for (JdbcNodeIdAllocator allocator : allocators) {
+            try {
+                allocator.close();
+            } catch (IllegalStateException ex) {
+                // The test broke the table on purpose
+            }
+        }
+        execute("SHUTDOWN");
+    }
+
+    @Test
+    void instancesLeaseDistinctNodeIds() {
+        JdbcNodeIdAllocator first = allocator(JdbcNodeIdAllocator.DEFAULT_LEASE_TTL);
+        JdbcNodeIdAllocator second = allocator(JdbcNodeIdAllocator.DEFAULT_LEASE_TTL);
+
+        assertEquals(0, first.acquire(1023));
+        assertEquals(1, second.acquire(1023));
+        assertTrue(first.isLeaseValid());
+        assertTrue(second.isLeaseValid());
+    }
+
+    @Test
+    void releasedNodeIdIsLeasedAgain() {
+        JdbcNodeIdAllocator first = allocator(JdbcNodeIdAllocator.DEFAULT_LEASE_TTL);
+        assertEquals(0, first.acquire(1023));
+        first.close();
+        assertFalse(first.isLeaseValid());
+
+        assertEquals(0, allocator(JdbcNodeIdAllocator.DEFAULT_LEASE_TTL).acquire(1023));
+    }
+
+    @Test
+    void expiredLeaseIsTakenOverAndLiveLeaseIsSkipped() throws SQLException {
+        createTable("VARCHAR(64)");
+        insertLease(0, "crashed", System.currentTimeMillis() - 1);
+        insertLease(1, "alive", System.currentTimeMillis() + 60_000);
+
+        JdbcNodeIdAllocator allocator = allocator(JdbcNodeIdAllocator.DEFAULT_LEASE_TTL);
+        assertEquals(0, allocator.acquire(1023));
+        assertEquals(2, allocator(JdbcNodeIdAllocator.DEFAULT_LEASE_TTL).acquire(1023));
+    }
+
+    @Test
+    void exhaustedNodeIdsFail() throws SQLException {
+        allocator(JdbcNodeIdAllocator.DEFAULT_LEASE_TTL).acquire(0);
+        insertLease(1, "alive", System.currentTimeMillis() + 60_000);
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> allocator(JdbcNodeIdAllocator.DEFAULT_LEASE_TTL).acquire(1));
+        assertTrue(ex.getMessage().startsWith("All node IDs"));
+    }
+
+    @Test
+    void takenOverLeaseIsInvalid() throws SQLException {
+        JdbcNodeIdAllocator allocator = allocator(JdbcNodeIdAllocator.DEFAULT_LEASE_TTL);
+        long nodeId = allocator.acquire(1023);
+        execute("UPDATE " + TABLE + " SET owner = 'other' WHERE node_id = " + nodeId);
+
+        assertFalse(allocator.renew());
+        assertFalse(allocator.isLeaseValid());
+    }
+
+    @Test
+    void leaseExpiresWhenHeartbeatFails() throws Exception {
+        JdbcNodeIdAllocator allocator = allocator(Duration.ofMillis(300));
+        allocator.acquire(1023);
+        // Every heartbeat fails from now on
+        execute("DROP TABLE " + TABLE);
+
+        assertTrue(allocator.isLeaseValid());
+        Thread.sleep(400);
+        assertFalse(allocator.renew());
+        assertFalse(allocator.isLeaseValid());
+    }
+
+    @Test
+    void databaseErrorsAreNotMistakenForLostRaces() throws SQLException {
+        // An owner column too narrow for the owner name fails every insert with SQLState 22001
+        createTable("VARCHAR(4)");
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> allocator(JdbcNodeIdAllocator.DEFAULT_LEASE_TTL).acquire(1023));
+        assertTrue(ex.getMessage().startsWith("Cannot lease"));
+        assertTrue(ex.getCause() instanceof SQLException);
+    }
+
+    @Test
+    void snowflakeUtilLeasesAgainAfterTakeover() throws SQLException {
+        JdbcNodeIdAllocator allocator = allocator(JdbcNodeIdAllocator.DEFAULT_LEASE_TTL);
+        int nodeId = SnowflakeUtil.useNodeIdAllocator(allocator);
+        assertEquals(nodeId, SnowflakeUtil.getLayout().getNodeId(SnowflakeUtil.nextId()));
+
+        execute("UPDATE " + TABLE + " SET owner = 'other', expires_at = " + (System.currentTimeMillis() + 60_000)
+                + " WHERE node_id = " + nodeId);
+        allocator.renew();
+
+        long id = SnowflakeUtil.nextId();
+        assertNotEquals(nodeId, SnowflakeUtil.getLayout().getNodeId(id));
+        assertEquals(SnowflakeUtil.getDefaultNodeId(), SnowflakeUtil.getLayout().getNodeId(id));
+        assertTrue(allocator.isLeaseValid());
+    }
+
+    private JdbcNodeIdAllocator allocator(Duration leaseTtl) {
+        JdbcNodeIdAllocator allocator = new JdbcNodeIdAllocator(dataSource, TABLE, leaseTtl);
+        allocators.add(allocator);
+        return allocator;
+    }
+
+    private void createTable(String ownerType) throws SQLException {
+        execute("CREATE TABLE " + TABLE + " (node_id INT NOT NULL PRIMARY KEY, owner " + ownerType
+                + " NOT NULL, expires_at BIGINT NOT NULL)");
+    }
+
+    private void insertLease(long nodeId, String owner, long expiresAt) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(
+                     "INSERT INTO " + TABLE + " (node_id, owner, expires_at) VALUES (?, ?, ?)")) {
+            ps.setLong(1, nodeId);
+            ps.setString(2, owner);
+            ps.setLong(3, expiresAt);
+            ps.executeUpdate();
+        }
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
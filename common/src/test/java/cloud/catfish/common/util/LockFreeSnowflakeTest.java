@@ -0,0 +1,71 @@
+package cloud.catfish.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Contention tests for the lock-based and lock-free engines: many threads released at once
+ * must never receive the same ID, and every thread must see its own IDs strictly increasing.
+ */
+class LockFreeSnowflakeTest {
+
+    private static final int THREADS = 64;
+    private static final int IDS_PER_THREAD = 20_000;
+
+    @Test
+    void lockFreeIdsAreUniqueAndIncreasingPerThread() throws Exception {
+        assertUniqueAndIncreasing(new LockFreeSnowflake(1));
+    }
+
+    @Test
+    void lockedIdsAreUniqueAndIncreasingPerThread() throws Exception {
+        assertUniqueAndIncreasing(new Snowflake(1));
+    }
+
+    private static void assertUniqueAndIncreasing(Snowflake snowflake) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<long[]>> results = new ArrayList<>(THREADS);
+            for (int t = 0; t < THREADS; t++) {
+                results.add(executor.submit(() -> {
+                    long[] ids = new long[IDS_PER_THREAD];
+                    start.await();
+                    for (int i = 0; i < ids.length; i++) {
+                        ids[i] = snowflake.nextId();
+                    }
+                    return ids;
+                }));
+            }
+            // Release all threads together so they contend for the same milliseconds
+            start.countDown();
+
+            Set<Long> seen = new HashSet<>(THREADS * IDS_PER_THREAD * 2);
+            for (Future<long[]> result : results) {
+                long[] ids = result.get(60, TimeUnit.SECONDS);
+                for (int i = 0; i < ids.length; i++) {
+                    if (i > 0) {
+                        assertTrue(ids[i] > ids[i - 1], "IDs of one thread must be strictly increasing");
+                    }
+                    assertTrue(seen.add(ids[i]), "Duplicate ID " + ids[i]);
+                }
+            }
+            assertEquals(THREADS * IDS_PER_THREAD, seen.size());
+            assertEquals(THREADS * IDS_PER_THREAD, snowflake.getStats().getGeneratedIds());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
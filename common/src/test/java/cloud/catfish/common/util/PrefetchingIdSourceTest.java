@@ -0,0 +1,52 @@
+package cloud.catfish.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prefetched IDs must not be handed out long after they were generated.
+ */
+class PrefetchingIdSourceTest {
+
+    private static final long START = SnowflakeLayout.DEFAULT.getEpoch() + 1_000_000L;
+
+    @Test
+    void staleBufferIsDiscarded() throws InterruptedException {
+        AtomicLong now = new AtomicLong(START);
+        Snowflake generator = new Snowflake(SnowflakeLayout.DEFAULT, 1, now::get, ClockRollbackPolicy.fail());
+        try (PrefetchingIdSource source = new PrefetchingIdSource(generator, 16, 4, 5)) {
+            awaitFull(source);
+
+            // Idle for longer than the maximum age: the buffered IDs are dropped
+            now.addAndGet(60_000);
+            long id = source.nextId();
+            assertEquals(START + 60_000, generator.getTimestamp(id));
+            assertEquals(16, source.getStaleDrops());
+        }
+    }
+
+    @Test
+    void freshBufferIsUsed() throws InterruptedException {
+        AtomicLong now = new AtomicLong(START);
+        Snowflake generator = new Snowflake(SnowflakeLayout.DEFAULT, 1, now::get, ClockRollbackPolicy.fail());
+        try (PrefetchingIdSource source = new PrefetchingIdSource(generator, 16, 4, 5)) {
+            awaitFull(source);
+            now.addAndGet(5);
+            assertEquals(START, generator.getTimestamp(source.nextId()));
+            assertEquals(0, source.getStaleDrops());
+            assertEquals(0, source.getFallbacks());
+        }
+    }
+
+    private static void awaitFull(PrefetchingIdSource source) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (source.size() < source.getCapacity()) {
+            assertTrue(System.nanoTime() < deadline, "Buffer was not filled");
+            Thread.sleep(1);
+        }
+    }
+}
@@ -4,35 +4,186 @@ import org.mybatis.generator.api.MyBatisGenerator;
 import org.mybatis.generator.config.Configuration;
 import org.mybatis.generator.config.xml.ConfigurationParser;
 import org.mybatis.generator.internal.DefaultShellCallback;
+import org.mybatis.generator.internal.util.StringUtility;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
 
+import javax.xml.parsers.DocumentBuilderFactory;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * MBG代码生成工具
+ * 默认串行生成；-Dmbg.threads=N（N > 1）时按表并行生成，生成的文件与串行生成逐字节相同
  * Created by macro on 2018/4/26.
  */
 public class Generator {
+
+    private static final String CONFIG_RESOURCE = "/generatorConfig.xml";
+
     public static void main(String[] args) throws Exception {
+        int threads = Integer.getInteger("mbg.threads", 1);
         //MBG 执行过程中的警告信息
+        List<String> warnings = threads > 1 ? generateParallel(threads) : generateSerial();
+        //输出警告信息
+        for (String warning : warnings) {
+            System.out.println(warning);
+        }
+    }
+
+    /**
+     * 一次生成配置中的全部表
+     *
+     * @return 警告信息
+     */
+    private static List<String> generateSerial() throws Exception {
         List<String> warnings = new ArrayList<>();
+        Configuration config = parseConfiguration(warnings);
         //当生成的代码重复时，覆盖原代码
-        boolean overwrite = true;
-        //读取我们的 MBG 配置文件
-        InputStream is = Generator.class.getResourceAsStream("/generatorConfig.xml");
-        ConfigurationParser cp = new ConfigurationParser(warnings);
-        Configuration config = cp.parseConfiguration(is);
-        is.close();
-
-        DefaultShellCallback callback = new DefaultShellCallback(overwrite);
+        DefaultShellCallback callback = new DefaultShellCallback(true);
         //创建 MBG
         MyBatisGenerator myBatisGenerator = new MyBatisGenerator(config, callback, warnings);
         //执行生成代码
         myBatisGenerator.generate(null);
-        //输出警告信息
-        for (String warning : warnings) {
-            System.out.println(warning);
+        return warnings;
+    }
+
+    /**
+     * 按表并行生成
+     * 配置中的&lt;table&gt;按顺序轮流分给各线程；每个线程重新解析配置，得到独立的Context、插件实例和数据库连接，
+     * 只生成分到的表。每张表的生成结果只取决于该表的配置和元数据，插件也只按表生成文件，
+     * 因此生成的文件与串行生成逐字节相同。警告按线程顺序合并，与线程的执行快慢无关；
+     * 每个线程都会重复的配置及插件校验警告只保留一条。
+     * tableName为通配符的&lt;table&gt;整体由一个线程生成；表名含${...}占位符时串行生成
+     *
+     * @param threads 线程数，不超过表的数量
+     * @return 警告信息
+     */
+    private static List<String> generateParallel(int threads) throws Exception {
+        // 解析警告由各线程重新解析时给出
+        Configuration config = parseConfiguration(new ArrayList<>());
+        if (!config.getClassPathEntries().isEmpty()) {
+            // MBG为classPathEntry注册的类加载器是全局共享的，多个生成过程不能同时修改
+            List<String> warnings = generateSerial();
+            warnings.add("Generator: classPathEntry is configured, generated serially");
+            return warnings;
+        }
+
+        Set<String> tableNames = readTableNames();
+        if (tableNames == null) {
+            List<String> warnings = generateSerial();
+            warnings.add("Generator: table names use ${...} placeholders, generated serially");
+            return warnings;
+        }
+        int workers = Math.min(threads, tableNames.size());
+        if (workers <= 1) {
+            return generateSerial();
+        }
+        List<Set<String>> partitions = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            partitions.add(new HashSet<>());
+        }
+        int index = 0;
+        for (String tableName : tableNames) {
+            partitions.get(index++ % workers).add(tableName);
+        }
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "mbg-generator-" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Set<String> warnings = new LinkedHashSet<>();
+        try {
+            List<Future<List<String>>> results = new ArrayList<>(workers);
+            for (Set<String> partition : partitions) {
+                results.add(executor.submit(() -> generateTables(partition)));
+            }
+            for (Future<List<String>> result : results) {
+                try {
+                    warnings.addAll(result.get());
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return new ArrayList<>(warnings);
+    }
+
+    /**
+     * 读取配置中&lt;table&gt;的全限定名，即MBG按表过滤时比较的名称
+     * MBG 1.4.2的Context不提供读取表配置的方法，因此直接读取配置文件；
+     * 同名的表（不同context）只出现一次，分到同一个线程，每张表只生成一次
+     *
+     * @return 表的全限定名，按配置中的顺序；含${...}占位符时为空
+     */
+    private static Set<String> readTableNames() throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        // 不加载DTD，只读取元素和属性
+        factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+        Document document;
+        try (InputStream is = Generator.class.getResourceAsStream(CONFIG_RESOURCE)) {
+            document = factory.newDocumentBuilder().parse(is);
+        }
+        Set<String> tableNames = new LinkedHashSet<>();
+        NodeList tables = document.getElementsByTagName("table");
+        for (int i = 0; i < tables.getLength(); i++) {
+            Element table = (Element) tables.item(i);
+            String catalog = table.getAttribute("catalog");
+            String schema = table.getAttribute("schema");
+            String tableName = table.getAttribute("tableName");
+            if ((catalog + schema + tableName).contains("${")) {
+                return null;
+            }
+            tableNames.add(StringUtility.composeFullyQualifiedTableName(
+                    emptyToNull(catalog), emptyToNull(schema), tableName, '.'));
+        }
+        return tableNames;
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * 用一份独立的配置生成指定的表
+     *
+     * @param tableNames 表的全限定名
+     * @return 警告信息
+     */
+    private static List<String> generateTables(Set<String> tableNames) throws Exception {
+        List<String> warnings = new ArrayList<>();
+        Configuration config = parseConfiguration(warnings);
+        DefaultShellCallback callback = new DefaultShellCallback(true);
+        MyBatisGenerator myBatisGenerator = new MyBatisGenerator(config, callback, warnings);
+        myBatisGenerator.generate(null, null, Collections.unmodifiableSet(tableNames));
+        return warnings;
+    }
+
+    /**
+     * 读取 MBG 配置文件
+     *
+     * @param warnings 解析时的警告信息
+     * @return 新解析的配置，与其他生成过程不共享任何对象
+     */
+    private static Configuration parseConfiguration(List<String> warnings) throws Exception {
+        try (InputStream is = Generator.class.getResourceAsStream(CONFIG_RESOURCE)) {
+            ConfigurationParser cp = new ConfigurationParser(warnings);
+            return cp.parseConfiguration(is);
         }
     }
 }
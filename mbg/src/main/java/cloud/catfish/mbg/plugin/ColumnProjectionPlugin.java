@@ -0,0 +1,223 @@
+package cloud.catfish.mbg.plugin;
+
+import org.mybatis.generator.api.IntrospectedColumn;
+import org.mybatis.generator.api.IntrospectedTable;
+import org.mybatis.generator.api.PluginAdapter;
+import org.mybatis.generator.api.dom.java.*;
+import org.mybatis.generator.api.dom.xml.Attribute;
+import org.mybatis.generator.api.dom.xml.Document;
+import org.mybatis.generator.api.dom.xml.TextElement;
+import org.mybatis.generator.api.dom.xml.VisitableElement;
+import org.mybatis.generator.api.dom.xml.XmlElement;
+import org.mybatis.generator.codegen.mybatis3.MyBatis3FormattingUtilities;
+import org.mybatis.generator.internal.util.StringUtility;
+
+import java.util.List;
+
+/**
+ * 列投影插件
+ * 在Example中生成本表的属性-列白名单FIELD_COLUMNS及selectFields方法，
+ * selectByExample、selectByExampleWithLimit和selectByExampleWithCursor只查询选中的列（主键列始终包含），
+ * 列表页不必读取宽文本列；未知属性抛出IllegalArgumentException，列名只来自白名单，不拼接请求内容
+ */
+public class ColumnProjectionPlugin extends PluginAdapter {
+
+    @Override
+    public boolean validate(List<String> warnings) {
+        return true;
+    }
+
+    /**
+     * 在Example中添加列白名单及选择列的方法
+     */
+    @Override
+    public boolean modelExampleClassGenerated(TopLevelClass topLevelClass, IntrospectedTable introspectedTable) {
+        addFieldColumns(topLevelClass, introspectedTable);
+        addSelectFieldsMethod(topLevelClass, introspectedTable);
+        resetOnClear(topLevelClass);
+        return true;
+    }
+
+    /**
+     * 将查询语句中的列清单改为可选列
+     */
+    @Override
+    public boolean sqlMapDocumentGenerated(Document document, IntrospectedTable introspectedTable) {
+        for (VisitableElement element : document.getRootElement().getElements()) {
+            if (!(element instanceof XmlElement)) {
+                continue;
+            }
+            XmlElement select = (XmlElement) element;
+            String id = attributeValue(select, "id");
+            if (introspectedTable.getSelectByExampleStatementId().equals(id) || CursorQueryPlugin.METHOD_NAME.equals(id)) {
+                replaceColumnList(select, introspectedTable, "");
+            } else if (KeysetPaginationPlugin.METHOD_NAME.equals(id)) {
+                replaceColumnList(select, introspectedTable, "example.");
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 属性名到列的白名单，与Base_Column_List的列相同
+     */
+    private void addFieldColumns(TopLevelClass topLevelClass, IntrospectedTable introspectedTable) {
+        FullyQualifiedJavaType mapType = new FullyQualifiedJavaType("java.util.Map");
+        mapType.addTypeArgument(FullyQualifiedJavaType.getStringInstance());
+        mapType.addTypeArgument(FullyQualifiedJavaType.getStringInstance());
+
+        Field fieldColumns = new Field("FIELD_COLUMNS", mapType);
+        fieldColumns.setVisibility(JavaVisibility.PUBLIC);
+        fieldColumns.setStatic(true);
+        fieldColumns.setFinal(true);
+        fieldColumns.addJavaDocLine("/**");
+        fieldColumns.addJavaDocLine(" * 可查询的属性及其列名，按表中顺序");
+        fieldColumns.addJavaDocLine(" */");
+        topLevelClass.addField(fieldColumns);
+
+        InitializationBlock block = new InitializationBlock(true);
+        block.addBodyLine("Map<String, String> columns = new LinkedHashMap<>();");
+        for (IntrospectedColumn column : introspectedTable.getNonBLOBColumns()) {
+            block.addBodyLine(String.format("columns.put(\"%s\", \"%s\");", column.getJavaProperty(),
+                    StringUtility.escapeStringForJava(MyBatis3FormattingUtilities.getSelectListPhrase(column))));
+        }
+        block.addBodyLine("FIELD_COLUMNS = Collections.unmodifiableMap(columns);");
+        topLevelClass.addInitializationBlock(block);
+
+        FullyQualifiedJavaType listType = new FullyQualifiedJavaType("java.util.List");
+        listType.addTypeArgument(FullyQualifiedJavaType.getStringInstance());
+        Field selectColumns = new Field("selectColumns", listType);
+        selectColumns.setVisibility(JavaVisibility.PROTECTED);
+        topLevelClass.addField(selectColumns);
+
+        FullyQualifiedJavaType setType = new FullyQualifiedJavaType("java.util.Set");
+        setType.addTypeArgument(FullyQualifiedJavaType.getStringInstance());
+        Field selectedFields = new Field("selectedFields", setType);
+        selectedFields.setVisibility(JavaVisibility.PROTECTED);
+        topLevelClass.addField(selectedFields);
+
+        Method getSelectColumns = new Method("getSelectColumns");
+        getSelectColumns.setVisibility(JavaVisibility.PUBLIC);
+        getSelectColumns.setReturnType(listType);
+        getSelectColumns.addBodyLine("return selectColumns;");
+        topLevelClass.addMethod(getSelectColumns);
+
+        Method getSelectedFields = new Method("getSelectedFields");
+        getSelectedFields.setVisibility(JavaVisibility.PUBLIC);
+        getSelectedFields.setReturnType(setType);
+        getSelectedFields.addBodyLine("return selectedFields;");
+        topLevelClass.addMethod(getSelectedFields);
+
+        topLevelClass.addImportedType(mapType);
+        topLevelClass.addImportedType(listType);
+        topLevelClass.addImportedType(setType);
+        topLevelClass.addImportedType(new FullyQualifiedJavaType("java.util.ArrayList"));
+        topLevelClass.addImportedType(new FullyQualifiedJavaType("java.util.Collection"));
+        topLevelClass.addImportedType(new FullyQualifiedJavaType("java.util.Collections"));
+        topLevelClass.addImportedType(new FullyQualifiedJavaType("java.util.LinkedHashMap"));
+        topLevelClass.addImportedType(new FullyQualifiedJavaType("java.util.LinkedHashSet"));
+    }
+
+    /**
+     * 添加selectFields方法：校验属性名并转为列清单，空集合表示查询全部列
+     */
+    private void addSelectFieldsMethod(TopLevelClass topLevelClass, IntrospectedTable introspectedTable) {
+        FullyQualifiedJavaType collectionType = new FullyQualifiedJavaType("java.util.Collection");
+        collectionType.addTypeArgument(FullyQualifiedJavaType.getStringInstance());
+
+        Method method = new Method("selectFields");
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.addParameter(new Parameter(collectionType, "fields"));
+        method.addJavaDocLine("/**");
+        method.addJavaDocLine(" * 只查询指定属性对应的列，主键列始终包含");
+        method.addJavaDocLine(" * @param fields 属性名，为空时查询全部列");
+        method.addJavaDocLine(" * @throws IllegalArgumentException 属性不在FIELD_COLUMNS中");
+        method.addJavaDocLine(" */");
+
+        method.addBodyLine("if (fields == null || fields.isEmpty()) {");
+        method.addBodyLine("selectColumns = null;");
+        method.addBodyLine("selectedFields = null;");
+        method.addBodyLine("return;");
+        method.addBodyLine("}");
+        method.addBodyLine("Set<String> selected = new LinkedHashSet<>();");
+        for (IntrospectedColumn column : introspectedTable.getPrimaryKeyColumns()) {
+            method.addBodyLine(String.format("selected.add(\"%s\");", column.getJavaProperty()));
+        }
+        method.addBodyLine("for (String field : fields) {");
+        method.addBodyLine("if (!FIELD_COLUMNS.containsKey(field)) {");
+        method.addBodyLine("throw new IllegalArgumentException(\"Unknown field: \" + field);");
+        method.addBodyLine("}");
+        method.addBodyLine("selected.add(field);");
+        method.addBodyLine("}");
+        method.addBodyLine("List<String> columns = new ArrayList<>(selected.size());");
+        method.addBodyLine("for (String field : selected) {");
+        method.addBodyLine("columns.add(FIELD_COLUMNS.get(field));");
+        method.addBodyLine("}");
+        method.addBodyLine("selectColumns = columns;");
+        method.addBodyLine("selectedFields = Collections.unmodifiableSet(selected);");
+
+        topLevelClass.addMethod(method);
+    }
+
+    /**
+     * clear()同时清除选中的列
+     */
+    private void resetOnClear(TopLevelClass topLevelClass) {
+        for (Method method : topLevelClass.getMethods()) {
+            if ("clear".equals(method.getName()) && method.getParameters().isEmpty()) {
+                method.addBodyLine("selectColumns = null;");
+                method.addBodyLine("selectedFields = null;");
+            }
+        }
+    }
+
+    /**
+     * 将&lt;include refid="Base_Column_List"/&gt;替换为：
+     * 选中列时逐列输出，否则仍引用Base_Column_List
+     *
+     * @param prefix Example参数在语句中的前缀
+     */
+    private void replaceColumnList(XmlElement select, IntrospectedTable introspectedTable, String prefix) {
+        List<VisitableElement> children = select.getElements();
+        for (int i = 0; i < children.size(); i++) {
+            VisitableElement child = children.get(i);
+            if (child instanceof XmlElement
+                    && "include".equals(((XmlElement) child).getName())
+                    && introspectedTable.getBaseColumnListId().equals(attributeValue((XmlElement) child, "refid"))) {
+                children.set(i, createColumnChoice(introspectedTable, prefix));
+                return;
+            }
+        }
+    }
+
+    private XmlElement createColumnChoice(IntrospectedTable introspectedTable, String prefix) {
+        XmlElement choose = new XmlElement("choose");
+
+        XmlElement when = new XmlElement("when");
+        when.addAttribute(new Attribute("test", prefix + "selectColumns != null"));
+        // 列名取自Example.FIELD_COLUMNS白名单，可以直接拼接
+        XmlElement foreach = new XmlElement("foreach");
+        foreach.addAttribute(new Attribute("collection", prefix + "selectColumns"));
+        foreach.addAttribute(new Attribute("item", "column"));
+        foreach.addAttribute(new Attribute("separator", ","));
+        foreach.addElement(new TextElement("${column}"));
+        when.addElement(foreach);
+        choose.addElement(when);
+
+        XmlElement otherwise = new XmlElement("otherwise");
+        XmlElement include = new XmlElement("include");
+        include.addAttribute(new Attribute("refid", introspectedTable.getBaseColumnListId()));
+        otherwise.addElement(include);
+        choose.addElement(otherwise);
+        return choose;
+    }
+
+    private static String attributeValue(XmlElement element, String name) {
+        for (Attribute attribute : element.getAttributes()) {
+            if (name.equals(attribute.getName())) {
+                return attribute.getValue();
+            }
+        }
+        return null;
+    }
+}
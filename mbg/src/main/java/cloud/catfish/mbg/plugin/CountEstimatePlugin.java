@@ -0,0 +1,117 @@
+package cloud.catfish.mbg.plugin;
+
+import org.mybatis.generator.api.IntrospectedTable;
+import org.mybatis.generator.api.PluginAdapter;
+import org.mybatis.generator.api.dom.java.*;
+import org.mybatis.generator.api.dom.xml.Attribute;
+import org.mybatis.generator.api.dom.xml.Document;
+import org.mybatis.generator.api.dom.xml.TextElement;
+import org.mybatis.generator.api.dom.xml.XmlElement;
+
+import java.util.List;
+
+/**
+ * 总数估算插件
+ * 为Mapper生成估算总数的方法，供CountStrategy.ESTIMATED使用，避免大表上的COUNT(*)：
+ * estimateTableRows - information_schema中的表行数（MySQL统计信息，无查询条件时使用）
+ * explainByExample - 按条件执行EXPLAIN，取优化器估算的扫描行数
+ */
+public class CountEstimatePlugin extends PluginAdapter {
+
+    @Override
+    public boolean validate(List<String> warnings) {
+        return true;
+    }
+
+    /**
+     * 在Mapper接口中添加估算方法
+     */
+    @Override
+    public boolean clientGenerated(Interface interfaze, IntrospectedTable introspectedTable) {
+        addEstimateTableRowsMethod(interfaze);
+        if (introspectedTable.getRules().generateSQLExampleWhereClause()) {
+            addExplainByExampleMethod(interfaze, introspectedTable);
+        }
+        return true;
+    }
+
+    /**
+     * 在XML映射文件中添加估算的SQL语句
+     */
+    @Override
+    public boolean sqlMapDocumentGenerated(Document document, IntrospectedTable introspectedTable) {
+        XmlElement rootElement = document.getRootElement();
+        rootElement.addElement(createEstimateTableRowsElement(introspectedTable));
+        if (introspectedTable.getRules().generateSQLExampleWhereClause()) {
+            rootElement.addElement(createExplainByExampleElement(introspectedTable));
+        }
+        return true;
+    }
+
+    private void addEstimateTableRowsMethod(Interface interfaze) {
+        Method method = new Method("estimateTableRows");
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setAbstract(true);
+        method.setReturnType(new FullyQualifiedJavaType("java.lang.Long"));
+
+        method.addJavaDocLine("/**");
+        method.addJavaDocLine(" * 查询统计信息中的表行数（估算值）");
+        method.addJavaDocLine(" * @return 表行数，统计信息不存在时为空");
+        method.addJavaDocLine(" */");
+
+        interfaze.addMethod(method);
+    }
+
+    private void addExplainByExampleMethod(Interface interfaze, IntrospectedTable introspectedTable) {
+        FullyQualifiedJavaType exampleType = new FullyQualifiedJavaType(introspectedTable.getExampleType());
+        FullyQualifiedJavaType mapType = new FullyQualifiedJavaType("java.util.Map");
+        mapType.addTypeArgument(FullyQualifiedJavaType.getStringInstance());
+        mapType.addTypeArgument(FullyQualifiedJavaType.getObjectInstance());
+        FullyQualifiedJavaType listType = new FullyQualifiedJavaType("java.util.List");
+        listType.addTypeArgument(mapType);
+
+        Method method = new Method("explainByExample");
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setAbstract(true);
+        method.setReturnType(listType);
+        method.addParameter(new Parameter(exampleType, "example"));
+
+        method.addJavaDocLine("/**");
+        method.addJavaDocLine(" * 按条件执行EXPLAIN");
+        method.addJavaDocLine(" * @param example 查询条件");
+        method.addJavaDocLine(" * @return 执行计划，每行包含rows、filtered等列");
+        method.addJavaDocLine(" */");
+
+        interfaze.addMethod(method);
+
+        interfaze.addImportedType(listType);
+        interfaze.addImportedType(mapType);
+        interfaze.addImportedType(exampleType);
+    }
+
+    private XmlElement createEstimateTableRowsElement(IntrospectedTable introspectedTable) {
+        XmlElement selectElement = new XmlElement("select");
+        selectElement.addAttribute(new Attribute("id", "estimateTableRows"));
+        selectElement.addAttribute(new Attribute("resultType", "java.lang.Long"));
+        selectElement.addElement(new TextElement("select TABLE_ROWS from information_schema.TABLES"));
+        selectElement.addElement(new TextElement("where TABLE_SCHEMA = DATABASE() and TABLE_NAME = '"
+                + introspectedTable.getFullyQualifiedTable().getIntrospectedTableName() + "'"));
+        return selectElement;
+    }
+
+    private XmlElement createExplainByExampleElement(IntrospectedTable introspectedTable) {
+        XmlElement selectElement = new XmlElement("select");
+        selectElement.addAttribute(new Attribute("id", "explainByExample"));
+        selectElement.addAttribute(new Attribute("parameterType", introspectedTable.getExampleType()));
+        selectElement.addAttribute(new Attribute("resultType", "java.util.Map"));
+        selectElement.addElement(new TextElement("explain select 1 from " + introspectedTable.getAliasedFullyQualifiedTableNameAtRuntime()));
+
+        XmlElement ifElement = new XmlElement("if");
+        ifElement.addAttribute(new Attribute("test", "_parameter != null"));
+        XmlElement where = new XmlElement("include");
+        where.addAttribute(new Attribute("refid", introspectedTable.getExampleWhereClauseId()));
+        ifElement.addElement(where);
+        selectElement.addElement(ifElement);
+        return selectElement;
+    }
+}
@@ -0,0 +1,138 @@
+package cloud.catfish.mbg.plugin;
+
+import org.mybatis.generator.api.IntrospectedTable;
+import org.mybatis.generator.api.PluginAdapter;
+import org.mybatis.generator.api.dom.java.*;
+import org.mybatis.generator.api.dom.xml.Attribute;
+import org.mybatis.generator.api.dom.xml.Document;
+import org.mybatis.generator.api.dom.xml.TextElement;
+import org.mybatis.generator.api.dom.xml.XmlElement;
+
+import java.util.List;
+
+/**
+ * 游标查询插件
+ * 为Mapper生成selectByExampleWithCursor方法，返回MyBatis的Cursor，逐行读取查询结果，
+ * 用于导出等大结果集场景，内存占用与结果集大小无关；遍历Cursor期间需保持SqlSession（事务）打开
+ *
+ * 配置属性：
+ * fetchSize - 每次从数据库读取的行数（默认Integer.MIN_VALUE，即MySQL驱动逐行流式读取）
+ */
+public class CursorQueryPlugin extends PluginAdapter {
+
+    public static final String METHOD_NAME = "selectByExampleWithCursor";
+
+    private static final String FETCH_SIZE = "fetchSize";
+    private static final String DEFAULT_FETCH_SIZE = String.valueOf(Integer.MIN_VALUE);
+
+    private String fetchSize;
+
+    @Override
+    public boolean validate(List<String> warnings) {
+        fetchSize = properties.getProperty(FETCH_SIZE, DEFAULT_FETCH_SIZE).trim();
+        try {
+            Integer.parseInt(fetchSize);
+        } catch (NumberFormatException e) {
+            warnings.add("CursorQueryPlugin: fetchSize is not a number, using default: " + DEFAULT_FETCH_SIZE);
+            fetchSize = DEFAULT_FETCH_SIZE;
+        }
+        return true;
+    }
+
+    /**
+     * 在Mapper接口中添加游标查询方法
+     */
+    @Override
+    public boolean clientGenerated(Interface interfaze, IntrospectedTable introspectedTable) {
+        if (isApplicable(introspectedTable)) {
+            addSelectWithCursorMethod(interfaze, introspectedTable);
+        }
+        return true;
+    }
+
+    /**
+     * 在XML映射文件中添加游标查询的SQL语句
+     */
+    @Override
+    public boolean sqlMapDocumentGenerated(Document document, IntrospectedTable introspectedTable) {
+        if (isApplicable(introspectedTable)) {
+            document.getRootElement().addElement(createSelectWithCursorElement(introspectedTable));
+        }
+        return true;
+    }
+
+    /**
+     * 需要生成selectByExample及其where子句时才添加
+     */
+    private boolean isApplicable(IntrospectedTable introspectedTable) {
+        return introspectedTable.getRules().generateSelectByExampleWithoutBLOBs()
+                && introspectedTable.getRules().generateSQLExampleWhereClause();
+    }
+
+    /**
+     * 添加游标查询方法到Mapper接口
+     */
+    private void addSelectWithCursorMethod(Interface interfaze, IntrospectedTable introspectedTable) {
+        FullyQualifiedJavaType recordType = new FullyQualifiedJavaType(introspectedTable.getBaseRecordType());
+        FullyQualifiedJavaType exampleType = new FullyQualifiedJavaType(introspectedTable.getExampleType());
+
+        FullyQualifiedJavaType cursorType = new FullyQualifiedJavaType("org.apache.ibatis.cursor.Cursor");
+        cursorType.addTypeArgument(recordType);
+
+        Method method = new Method(METHOD_NAME);
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setAbstract(true);
+        method.setReturnType(cursorType);
+        method.addParameter(new Parameter(exampleType, "example"));
+
+        method.addJavaDocLine("/**");
+        method.addJavaDocLine(" * 按条件查询，逐行读取结果（用于导出大结果集）");
+        method.addJavaDocLine(" * 遍历期间需保持SqlSession打开，调用方应在只读事务中遍历并关闭Cursor");
+        method.addJavaDocLine(" * @param example 查询条件及排序");
+        method.addJavaDocLine(" * @return 查询结果游标");
+        method.addJavaDocLine(" */");
+
+        interfaze.addMethod(method);
+
+        interfaze.addImportedType(cursorType);
+        interfaze.addImportedType(recordType);
+        interfaze.addImportedType(exampleType);
+    }
+
+    /**
+     * 创建游标查询的XML元素，结构与selectByExample相同
+     */
+    private XmlElement createSelectWithCursorElement(IntrospectedTable introspectedTable) {
+        XmlElement selectElement = new XmlElement("select");
+        selectElement.addAttribute(new Attribute("id", METHOD_NAME));
+        selectElement.addAttribute(new Attribute("parameterType", introspectedTable.getExampleType()));
+        selectElement.addAttribute(new Attribute("resultMap", introspectedTable.getBaseResultMapId()));
+        selectElement.addAttribute(new Attribute("resultSetType", "FORWARD_ONLY"));
+        selectElement.addAttribute(new Attribute("fetchSize", fetchSize));
+
+        selectElement.addElement(new TextElement("select"));
+        XmlElement distinct = new XmlElement("if");
+        distinct.addAttribute(new Attribute("test", "distinct"));
+        distinct.addElement(new TextElement("distinct"));
+        selectElement.addElement(distinct);
+
+        XmlElement columns = new XmlElement("include");
+        columns.addAttribute(new Attribute("refid", introspectedTable.getBaseColumnListId()));
+        selectElement.addElement(columns);
+        selectElement.addElement(new TextElement("from " + introspectedTable.getAliasedFullyQualifiedTableNameAtRuntime()));
+
+        XmlElement where = new XmlElement("if");
+        where.addAttribute(new Attribute("test", "_parameter != null"));
+        XmlElement whereClause = new XmlElement("include");
+        whereClause.addAttribute(new Attribute("refid", introspectedTable.getExampleWhereClauseId()));
+        where.addElement(whereClause);
+        selectElement.addElement(where);
+
+        XmlElement orderBy = new XmlElement("if");
+        orderBy.addAttribute(new Attribute("test", "orderByClause != null"));
+        orderBy.addElement(new TextElement("order by ${orderByClause}"));
+        selectElement.addElement(orderBy);
+
+        return selectElement;
+    }
+}
@@ -27,6 +27,8 @@ import java.util.Properties;
  * - Template-based code generation using Velocity
  * - Automatic service layer integration
  * - Customizable API base URLs and response models
+ * - Primary keys in paths as SnowflakeIdCodec strings when idCodec is set; it must match the
+ *   idCodec of DomainModelPlugin, so clients can send back the IDs they received
  * 
  * @author MyBatis Generator Plugin
  * @version 1.0
@@ -56,12 +58,14 @@ public class CustomVelocityControllerPlugin extends PluginAdapter {
     private static final String BASE_PACKAGE_PATH_PROPERTY = "basePackagePath";
     private static final String RESPONSE_MODEL_PROPERTY = "responseModel";
     private static final String ENABLE_DEBUG_OUTPUT_PROPERTY = "enableDebugOutput";
+    private static final String ID_CODEC_PROPERTY = "idCodec";
     
     // Instance fields
     private VelocityEngine velocityEngine;
     private String basePackagePath = DEFAULT_BASE_PACKAGE_PATH;
     private String responseModel = DEFAULT_RESPONSE_MODEL;
     private boolean enableDebugOutput = false;
+    private String idCodec;
 
     /**
      * Validates the plugin configuration and dependencies.
@@ -91,6 +95,9 @@ public class CustomVelocityControllerPlugin extends PluginAdapter {
                 valid = false;
             }
         }
+
+        // Validate the primary key codec
+        idCodec = DomainModelPlugin.parseIdCodec("CustomVelocityControllerPlugin", idCodec, warnings);
         
         return valid;
     }
@@ -133,6 +140,9 @@ public class CustomVelocityControllerPlugin extends PluginAdapter {
         this.enableDebugOutput = Boolean.parseBoolean(
             properties.getProperty(ENABLE_DEBUG_OUTPUT_PROPERTY, "false")
         );
+
+        // Parse primary key codec, checked in validate()
+        this.idCodec = properties.getProperty(ID_CODEC_PROPERTY);
     }
     
     /**
@@ -228,6 +238,9 @@ public class CustomVelocityControllerPlugin extends PluginAdapter {
         // API configuration
         context.put("apiBaseUrl", "/" + entityName);
         context.put("SimplResponseModel", responseModel);
+
+        // Primary key codec of path variables, null for plain numbers
+        context.put("idCodec", idCodec);
         
         return context;
     }
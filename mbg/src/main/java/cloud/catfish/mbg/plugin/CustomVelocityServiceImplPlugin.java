@@ -12,6 +12,7 @@ import org.mybatis.generator.api.dom.java.TopLevelClass;
 
 import java.io.StringWriter;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 /**
@@ -162,7 +163,7 @@ public class CustomVelocityServiceImplPlugin extends PluginAdapter {
         String packageName = topLevelClass.getType().getPackageName();
         
         // Create Velocity context with all necessary variables
-        VelocityContext context = createVelocityContext(entityName, packageName);
+        VelocityContext context = createVelocityContext(entityName, packageName, introspectedTable);
         
         // Generate service implementation content
         String serviceImplContent = generateServiceImplContent(context);
@@ -177,9 +178,10 @@ public class CustomVelocityServiceImplPlugin extends PluginAdapter {
      * 
      * @param entityName the entity name
      * @param packageName the base package name
+     * @param introspectedTable the table information
      * @return populated Velocity context
      */
-    private VelocityContext createVelocityContext(String entityName, String packageName) {
+    private VelocityContext createVelocityContext(String entityName, String packageName, IntrospectedTable introspectedTable) {
         VelocityContext context = new VelocityContext();
         
         // Package imports
@@ -205,6 +207,9 @@ public class CustomVelocityServiceImplPlugin extends PluginAdapter {
         context.put("ModelSimpleName", entityName);
         context.put("SimplResponseModel", responseModel);
         
+        // RequestParam search, published by RequestParamGeneratorPlugin
+        addRequestParamContext(context, introspectedTable);
+        
         if (enableDebugOutput) {
             System.out.println("Generated Velocity context for entity: " + entityName);
         }
@@ -212,6 +217,26 @@ public class CustomVelocityServiceImplPlugin extends PluginAdapter {
         return context;
     }
     
+    /**
+     * Adds the RequestParam class and its date range fields to the context, when
+     * RequestParamGeneratorPlugin has generated one for the table.
+     * 
+     * @param context the Velocity context
+     * @param introspectedTable the table information
+     */
+    private void addRequestParamContext(VelocityContext context, IntrospectedTable introspectedTable) {
+        Object requestParamType = introspectedTable.getAttribute(RequestParamGeneratorPlugin.REQUEST_PARAM_TYPE_ATTRIBUTE);
+        if (requestParamType == null) {
+            return;
+        }
+        List<?> dateRangeFields = (List<?>) introspectedTable.getAttribute(RequestParamGeneratorPlugin.DATE_RANGE_FIELDS_ATTRIBUTE);
+        String type = requestParamType.toString();
+        context.put("RequestParamType", type);
+        context.put("RequestParamSimpleName", type.substring(type.lastIndexOf('.') + 1));
+        context.put("dateRangeFields", dateRangeFields);
+        context.put("hasIdRange", dateRangeFields.stream().anyMatch(field -> Boolean.TRUE.equals(((Map<?, ?>) field).get("idRange"))));
+    }
+    
     /**
      * Generates the service implementation content using Velocity template.
      * 
@@ -163,7 +163,7 @@ public class CustomVelocityServicePlugin extends PluginAdapter {
         String packageName = topLevelClass.getType().getPackageName();
         
         // Create Velocity context with all necessary variables
-        VelocityContext context = createVelocityContext(entityName, packageName);
+        VelocityContext context = createVelocityContext(entityName, packageName, introspectedTable);
         
         // Generate service interface content
         String serviceContent = generateServiceContent(context);
@@ -178,9 +178,10 @@ public class CustomVelocityServicePlugin extends PluginAdapter {
      * 
      * @param entityName the entity name
      * @param packageName the base package name
+     * @param introspectedTable the table information
      * @return populated Velocity context
      */
-    private VelocityContext createVelocityContext(String entityName, String packageName) {
+    private VelocityContext createVelocityContext(String entityName, String packageName, IntrospectedTable introspectedTable) {
         VelocityContext context = new VelocityContext();
         
         // Package imports
@@ -199,6 +200,9 @@ public class CustomVelocityServicePlugin extends PluginAdapter {
         context.put("apiBaseUrl", generateApiBaseUrl(entityName));
         context.put("SimplResponseModel", responseModel);
         
+        // RequestParam search, published by RequestParamGeneratorPlugin
+        addRequestParamContext(context, introspectedTable);
+        
         if (enableDebugOutput) {
             System.out.println("Generated Velocity context for entity: " + entityName);
         }
@@ -206,6 +210,23 @@ public class CustomVelocityServicePlugin extends PluginAdapter {
         return context;
     }
     
+    /**
+     * Adds the RequestParam class to the context, when
+     * RequestParamGeneratorPlugin has generated one for the table.
+     * 
+     * @param context the Velocity context
+     * @param introspectedTable the table information
+     */
+    private void addRequestParamContext(VelocityContext context, IntrospectedTable introspectedTable) {
+        Object requestParamType = introspectedTable.getAttribute(RequestParamGeneratorPlugin.REQUEST_PARAM_TYPE_ATTRIBUTE);
+        if (requestParamType == null) {
+            return;
+        }
+        String type = requestParamType.toString();
+        context.put("RequestParamType", type);
+        context.put("RequestParamSimpleName", type.substring(type.lastIndexOf('.') + 1));
+    }
+    
     /**
      * Generates the API base URL for the given entity.
      * 
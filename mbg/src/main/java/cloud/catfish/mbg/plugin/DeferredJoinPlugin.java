@@ -0,0 +1,124 @@
+package cloud.catfish.mbg.plugin;
+
+import org.mybatis.generator.api.IntrospectedColumn;
+import org.mybatis.generator.api.IntrospectedTable;
+import org.mybatis.generator.api.PluginAdapter;
+import org.mybatis.generator.api.dom.java.*;
+import org.mybatis.generator.api.dom.xml.Attribute;
+import org.mybatis.generator.api.dom.xml.Document;
+import org.mybatis.generator.api.dom.xml.TextElement;
+import org.mybatis.generator.api.dom.xml.XmlElement;
+import org.mybatis.generator.codegen.mybatis3.MyBatis3FormattingUtilities;
+
+import java.util.List;
+
+/**
+ * 延迟关联插件
+ * 为Mapper生成selectIdsByExample方法，按条件只查询主键，配合PageHelper分页生成
+ * SELECT id FROM ... WHERE ... LIMIT offset,size，可走覆盖索引；
+ * 深分页时先查询主键再按 id IN (...) 取整行（见cloud.catfish.api.DeferredJoin），避免读取并丢弃offset之前的整行
+ * 仅对单列主键的表生成
+ */
+public class DeferredJoinPlugin extends PluginAdapter {
+
+    public static final String METHOD_NAME = "selectIdsByExample";
+
+    @Override
+    public boolean validate(List<String> warnings) {
+        return true;
+    }
+
+    /**
+     * 在Mapper接口中添加主键查询方法
+     */
+    @Override
+    public boolean clientGenerated(Interface interfaze, IntrospectedTable introspectedTable) {
+        if (isApplicable(introspectedTable)) {
+            addSelectIdsMethod(interfaze, introspectedTable);
+        }
+        return true;
+    }
+
+    /**
+     * 在XML映射文件中添加主键查询的SQL语句
+     */
+    @Override
+    public boolean sqlMapDocumentGenerated(Document document, IntrospectedTable introspectedTable) {
+        if (isApplicable(introspectedTable)) {
+            document.getRootElement().addElement(createSelectIdsElement(introspectedTable));
+        }
+        return true;
+    }
+
+    /**
+     * 需要单列主键及按条件查询的where子句
+     */
+    private boolean isApplicable(IntrospectedTable introspectedTable) {
+        return introspectedTable.getPrimaryKeyColumns().size() == 1
+                && introspectedTable.getRules().generateSQLExampleWhereClause();
+    }
+
+    /**
+     * 添加主键查询方法到Mapper接口
+     */
+    private void addSelectIdsMethod(Interface interfaze, IntrospectedTable introspectedTable) {
+        FullyQualifiedJavaType idType = introspectedTable.getPrimaryKeyColumns().get(0).getFullyQualifiedJavaType();
+        FullyQualifiedJavaType exampleType = new FullyQualifiedJavaType(introspectedTable.getExampleType());
+
+        FullyQualifiedJavaType listType = new FullyQualifiedJavaType("java.util.List");
+        listType.addTypeArgument(idType);
+
+        Method method = new Method(METHOD_NAME);
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setAbstract(true);
+        method.setReturnType(listType);
+        method.addParameter(new Parameter(exampleType, "example"));
+
+        method.addJavaDocLine("/**");
+        method.addJavaDocLine(" * 按条件只查询主键（用于深分页延迟关联，配合PageHelper分页）");
+        method.addJavaDocLine(" * @param example 查询条件及排序");
+        method.addJavaDocLine(" * @return 主键列表");
+        method.addJavaDocLine(" */");
+
+        interfaze.addMethod(method);
+
+        interfaze.addImportedType(listType);
+        interfaze.addImportedType(idType);
+        interfaze.addImportedType(exampleType);
+    }
+
+    /**
+     * 创建主键查询的XML元素，条件及排序与selectByExample相同
+     */
+    private XmlElement createSelectIdsElement(IntrospectedTable introspectedTable) {
+        IntrospectedColumn idColumn = introspectedTable.getPrimaryKeyColumns().get(0);
+
+        XmlElement selectElement = new XmlElement("select");
+        selectElement.addAttribute(new Attribute("id", METHOD_NAME));
+        selectElement.addAttribute(new Attribute("parameterType", introspectedTable.getExampleType()));
+        selectElement.addAttribute(new Attribute("resultType", idColumn.getFullyQualifiedJavaType().getFullyQualifiedName()));
+
+        selectElement.addElement(new TextElement("select"));
+        XmlElement distinct = new XmlElement("if");
+        distinct.addAttribute(new Attribute("test", "distinct"));
+        distinct.addElement(new TextElement("distinct"));
+        selectElement.addElement(distinct);
+
+        selectElement.addElement(new TextElement(MyBatis3FormattingUtilities.getAliasedEscapedColumnName(idColumn)));
+        selectElement.addElement(new TextElement("from " + introspectedTable.getAliasedFullyQualifiedTableNameAtRuntime()));
+
+        XmlElement where = new XmlElement("if");
+        where.addAttribute(new Attribute("test", "_parameter != null"));
+        XmlElement whereClause = new XmlElement("include");
+        whereClause.addAttribute(new Attribute("refid", introspectedTable.getExampleWhereClauseId()));
+        where.addElement(whereClause);
+        selectElement.addElement(where);
+
+        XmlElement orderBy = new XmlElement("if");
+        orderBy.addAttribute(new Attribute("test", "orderByClause != null"));
+        orderBy.addElement(new TextElement("order by ${orderByClause}"));
+        selectElement.addElement(orderBy);
+
+        return selectElement;
+    }
+}
@@ -1,5 +1,6 @@
 package cloud.catfish.mbg.plugin;
 
+import cloud.catfish.common.util.SnowflakeIdCodec;
 import org.mybatis.generator.api.IntrospectedColumn;
 import org.mybatis.generator.api.IntrospectedTable;
 import org.mybatis.generator.api.PluginAdapter;
@@ -8,7 +9,9 @@ import org.mybatis.generator.api.dom.java.FullyQualifiedJavaType;
 import org.mybatis.generator.api.dom.java.Method;
 import org.mybatis.generator.api.dom.java.TopLevelClass;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * Unified MyBatis Generator plugin for comprehensive domain model generation control.
@@ -18,6 +21,7 @@ import java.util.List;
  *   <li><strong>Date/Time Serialization:</strong> Adds @JsonFormat annotations for JSON serialization</li>
  *   <li><strong>Date/Time Deserialization:</strong> Adds @DateTimeFormat annotations for Spring MVC binding</li>
  *   <li><strong>Getter/Setter Control:</strong> Optionally disables getter/setter method generation</li>
+ *   <li><strong>Snowflake ID Strings:</strong> Optionally serializes primary keys as fixed-width strings</li>
  * </ul>
  * 
  * <p><strong>Features:</strong></p>
@@ -37,6 +41,8 @@ import java.util.List;
  *   <li><code>generateSetters</code> - Generate setter methods (default: true)</li>
  *   <li><code>dateTimePattern</code> - Date/time pattern (default: "yyyy-MM-dd HH:mm:ss")</li>
  *   <li><code>timezone</code> - Timezone for JSON format (default: "GMT+8")</li>
+ *   <li><code>idCodec</code> - Adds @SnowflakeIdFormat with this SnowflakeIdCodec (BASE62 or CROCKFORD_BASE32)
+ *       to primary key fields, so JavaScript clients receive IDs as strings (default: none)</li>
  * </ul>
  * 
  * <p><strong>Note:</strong> Date/time format annotations are disabled by default since the VO generator plugin 
@@ -65,6 +71,11 @@ public class DomainModelPlugin extends PluginAdapter {
     private static final String GENERATE_SETTERS = "generateSetters";
     private static final String DATE_TIME_PATTERN = "dateTimePattern";
     private static final String TIMEZONE = "timezone";
+    private static final String ID_CODEC = "idCodec";
+    
+    // Snowflake ID string format
+    private static final String SNOWFLAKE_ID_FORMAT_CLASS = "cloud.catfish.common.json.SnowflakeIdFormat";
+    private static final String SNOWFLAKE_ID_CODEC_CLASS = "cloud.catfish.common.util.SnowflakeIdCodec";
     
     // Default values
     private static final String DEFAULT_DATE_TIME_PATTERN = "yyyy-MM-dd HH:mm:ss";
@@ -75,6 +86,7 @@ public class DomainModelPlugin extends PluginAdapter {
     private boolean generateSetters = true;
     private String dateTimePattern = DEFAULT_DATE_TIME_PATTERN;
     private String timezone = DEFAULT_TIMEZONE;
+    private String idCodec;
 
     @Override
     public boolean validate(List<String> warnings) {
@@ -91,9 +103,33 @@ public class DomainModelPlugin extends PluginAdapter {
             warnings.add("DomainModelPlugin: timezone is empty, using default: " + DEFAULT_TIMEZONE);
             timezone = DEFAULT_TIMEZONE;
         }
+
+        idCodec = parseIdCodec("DomainModelPlugin", idCodec, warnings);
         
         return true;
     }
+
+    /**
+     * Checks an idCodec property against the SnowflakeIdCodec constants, so an invalid value
+     * is reported instead of generating an annotation that does not compile.
+     *
+     * @param pluginName the plugin reading the property, for the warning
+     * @param value the configured value, may be null
+     * @param warnings list to collect validation warnings
+     * @return the codec constant name, or null if the property is unset or invalid
+     */
+    static String parseIdCodec(String pluginName, String value, List<String> warnings) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return SnowflakeIdCodec.valueOf(value.trim().toUpperCase(Locale.ROOT)).name();
+        } catch (IllegalArgumentException e) {
+            warnings.add(pluginName + ": idCodec must be one of " + Arrays.toString(SnowflakeIdCodec.values())
+                    + ", primary keys are not encoded: " + value);
+            return null;
+        }
+    }
     
     /**
      * Parses configuration properties from the plugin configuration.
@@ -104,6 +140,7 @@ public class DomainModelPlugin extends PluginAdapter {
             generateSetters = Boolean.parseBoolean(properties.getProperty(GENERATE_SETTERS, "true"));
             dateTimePattern = properties.getProperty(DATE_TIME_PATTERN, DEFAULT_DATE_TIME_PATTERN);
             timezone = properties.getProperty(TIMEZONE, DEFAULT_TIMEZONE);
+            idCodec = properties.getProperty(ID_CODEC);
         }
     }
 
@@ -112,6 +149,12 @@ public class DomainModelPlugin extends PluginAdapter {
                                      IntrospectedColumn introspectedColumn, 
                                      IntrospectedTable introspectedTable, 
                                      ModelClassType modelClassType) {
+        // Primary keys leave the server as fixed-width strings when an ID codec is configured
+        if (idCodec != null && introspectedTable.getPrimaryKeyColumns().contains(introspectedColumn)) {
+            field.addAnnotation("@SnowflakeIdFormat(SnowflakeIdCodec." + idCodec + ")");
+            topLevelClass.addImportedType(new FullyQualifiedJavaType(SNOWFLAKE_ID_FORMAT_CLASS));
+            topLevelClass.addImportedType(new FullyQualifiedJavaType(SNOWFLAKE_ID_CODEC_CLASS));
+        }
         return super.modelFieldGenerated(field, topLevelClass, introspectedColumn, introspectedTable, modelClassType);
     }
 
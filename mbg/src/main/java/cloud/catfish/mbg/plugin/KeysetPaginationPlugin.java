@@ -0,0 +1,128 @@
+package cloud.catfish.mbg.plugin;
+
+import org.mybatis.generator.api.IntrospectedTable;
+import org.mybatis.generator.api.PluginAdapter;
+import org.mybatis.generator.api.dom.java.*;
+import org.mybatis.generator.api.dom.xml.Attribute;
+import org.mybatis.generator.api.dom.xml.Document;
+import org.mybatis.generator.api.dom.xml.TextElement;
+import org.mybatis.generator.api.dom.xml.XmlElement;
+
+import java.util.List;
+
+/**
+ * 键集分页插件
+ * 为Mapper生成selectByExampleWithLimit方法，配合Example中的 id > ? 条件和 ORDER BY id
+ * 生成 WHERE id > ? ORDER BY id LIMIT ? 查询，不使用OFFSET，查询耗时与页深无关
+ */
+public class KeysetPaginationPlugin extends PluginAdapter {
+
+    public static final String METHOD_NAME = "selectByExampleWithLimit";
+
+    @Override
+    public boolean validate(List<String> warnings) {
+        return true;
+    }
+
+    /**
+     * 在Mapper接口中添加按条件限量查询方法
+     */
+    @Override
+    public boolean clientGenerated(Interface interfaze, IntrospectedTable introspectedTable) {
+        if (isApplicable(introspectedTable)) {
+            addSelectWithLimitMethod(interfaze, introspectedTable);
+        }
+        return true;
+    }
+
+    /**
+     * 在XML映射文件中添加按条件限量查询的SQL语句
+     */
+    @Override
+    public boolean sqlMapDocumentGenerated(Document document, IntrospectedTable introspectedTable) {
+        if (isApplicable(introspectedTable)) {
+            addSelectWithLimitXmlElement(document, introspectedTable);
+        }
+        return true;
+    }
+
+    /**
+     * 需要生成selectByExample及其where子句时才添加
+     */
+    private boolean isApplicable(IntrospectedTable introspectedTable) {
+        return introspectedTable.getRules().generateSelectByExampleWithoutBLOBs()
+                && introspectedTable.getRules().generateMyBatis3UpdateByExampleWhereClause();
+    }
+
+    /**
+     * 添加按条件限量查询方法到Mapper接口
+     */
+    private void addSelectWithLimitMethod(Interface interfaze, IntrospectedTable introspectedTable) {
+        FullyQualifiedJavaType recordType = new FullyQualifiedJavaType(introspectedTable.getBaseRecordType());
+        FullyQualifiedJavaType exampleType = new FullyQualifiedJavaType(introspectedTable.getExampleType());
+        FullyQualifiedJavaType paramAnnotation = new FullyQualifiedJavaType("org.apache.ibatis.annotations.Param");
+
+        FullyQualifiedJavaType listType = new FullyQualifiedJavaType("java.util.List");
+        listType.addTypeArgument(recordType);
+
+        Method method = new Method(METHOD_NAME);
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setAbstract(true);
+        method.setReturnType(listType);
+
+        Parameter example = new Parameter(exampleType, "example");
+        example.addAnnotation("@Param(\"example\")");
+        method.addParameter(example);
+        Parameter limit = new Parameter(FullyQualifiedJavaType.getIntInstance(), "limit");
+        limit.addAnnotation("@Param(\"limit\")");
+        method.addParameter(limit);
+
+        method.addJavaDocLine("/**");
+        method.addJavaDocLine(" * 按条件查询，最多返回limit条记录（不分页计数，用于键集分页）");
+        method.addJavaDocLine(" * @param example 查询条件及排序");
+        method.addJavaDocLine(" * @param limit 最多返回的记录数");
+        method.addJavaDocLine(" * @return 查询结果列表");
+        method.addJavaDocLine(" */");
+
+        interfaze.addMethod(method);
+
+        interfaze.addImportedType(listType);
+        interfaze.addImportedType(recordType);
+        interfaze.addImportedType(exampleType);
+        interfaze.addImportedType(paramAnnotation);
+    }
+
+    /**
+     * 添加按条件限量查询的XML元素
+     */
+    private void addSelectWithLimitXmlElement(Document document, IntrospectedTable introspectedTable) {
+        XmlElement selectElement = new XmlElement("select");
+        selectElement.addAttribute(new Attribute("id", METHOD_NAME));
+        selectElement.addAttribute(new Attribute("resultMap", introspectedTable.getBaseResultMapId()));
+
+        selectElement.addElement(new TextElement("select"));
+        XmlElement distinct = new XmlElement("if");
+        distinct.addAttribute(new Attribute("test", "example.distinct"));
+        distinct.addElement(new TextElement("distinct"));
+        selectElement.addElement(distinct);
+
+        XmlElement columns = new XmlElement("include");
+        columns.addAttribute(new Attribute("refid", introspectedTable.getBaseColumnListId()));
+        selectElement.addElement(columns);
+        selectElement.addElement(new TextElement("from " + introspectedTable.getAliasedFullyQualifiedTableNameAtRuntime()));
+
+        // 复用按条件更新的where子句，其参数前缀为example.
+        XmlElement where = new XmlElement("include");
+        where.addAttribute(new Attribute("refid", introspectedTable.getMyBatis3UpdateByExampleWhereClauseId()));
+        selectElement.addElement(where);
+
+        XmlElement orderBy = new XmlElement("if");
+        orderBy.addAttribute(new Attribute("test", "example.orderByClause != null"));
+        orderBy.addElement(new TextElement("order by ${example.orderByClause}"));
+        selectElement.addElement(orderBy);
+
+        selectElement.addElement(new TextElement("limit #{limit}"));
+
+        document.getRootElement().addElement(selectElement);
+    }
+}
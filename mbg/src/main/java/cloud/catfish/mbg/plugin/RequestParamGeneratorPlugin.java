@@ -10,8 +10,13 @@ import org.mybatis.generator.api.dom.java.TopLevelClass;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
 /**
  * MyBatis Generator plugin for generating Request Parameter classes
@@ -44,6 +49,8 @@ import java.util.Properties;
  *   <li><code>enableSorting</code> - Controls BaseRequestParam sorting field (sort) (default: true)</li>
  *   <li><code>enableSwagger</code> - Enable Swagger3 annotations (default: true)</li>
  *   <li><code>enableDateRange</code> - Enable date range queries for LocalDateTime fields (default: true)</li>
+ *   <li><code>idRangeFields</code> - Comma-separated LocalDateTime properties whose Start/End range is compiled into an
+ *       <code>id BETWEEN</code> predicate on the Snowflake primary key instead of a column range (default: none)</li>
  *   <li><code>swaggerDescriptionSuffix</code> - Suffix for class descriptions (default: " Request Parameters")</li>
  * </ul>
  * 
@@ -57,6 +64,7 @@ import java.util.Properties;
  *     &lt;property name="enableSorting" value="true"/&gt;
  *     &lt;property name="enableSwagger" value="true"/&gt;
  *     &lt;property name="enableDateRange" value="true"/&gt;
+ *     &lt;property name="idRangeFields" value="createTime"/&gt;
  *     &lt;property name="swaggerDescriptionSuffix" value=" Request Parameters"/&gt;
  * &lt;/plugin&gt;
  * </pre>
@@ -92,7 +100,9 @@ import java.util.Properties;
  * 
  * <p><strong>Note:</strong> Field descriptions are automatically extracted from database column comments.
  * If no column comment is available, a readable description is generated from the field name.
- * LocalDateTime fields automatically include start/end range parameters for date range queries.</p>
+ * LocalDateTime fields automatically include start/end range parameters for date range queries.
+ * The generated service applies them in its <code>search</code> method; ranges of <code>idRangeFields</code>
+ * become a primary-key range scan, since Snowflake IDs are ordered by creation time.</p>
  * 
  * @author MyBatis Generator Plugin
  * @version 1.0
@@ -109,6 +119,11 @@ public class RequestParamGeneratorPlugin extends PluginAdapter {
     private static final String ENABLE_SWAGGER = "enableSwagger";
     private static final String ENABLE_DATE_RANGE = "enableDateRange";
     private static final String SWAGGER_DESCRIPTION_SUFFIX = "swaggerDescriptionSuffix";
+    private static final String ID_RANGE_FIELDS = "idRangeFields";
+
+    // IntrospectedTable attributes read by the service plugins
+    public static final String REQUEST_PARAM_TYPE_ATTRIBUTE = "requestParamType";
+    public static final String DATE_RANGE_FIELDS_ATTRIBUTE = "requestParamDateRangeFields";
 
     // Default values
     private static final String DEFAULT_REQUEST_PARAM_PACKAGE_SUFFIX = ".param";
@@ -139,6 +154,7 @@ public class RequestParamGeneratorPlugin extends PluginAdapter {
     private boolean enableSwagger = true;
     private boolean enableDateRange = true;
     private String swaggerDescriptionSuffix = DEFAULT_SWAGGER_DESCRIPTION_SUFFIX;
+    private Set<String> idRangeFields = new HashSet<>();
 
     @Override
     public boolean validate(List<String> warnings) {
@@ -167,6 +183,12 @@ public class RequestParamGeneratorPlugin extends PluginAdapter {
             enableSwagger = Boolean.parseBoolean(properties.getProperty(ENABLE_SWAGGER, "true"));
             enableDateRange = Boolean.parseBoolean(properties.getProperty(ENABLE_DATE_RANGE, "true"));
             swaggerDescriptionSuffix = properties.getProperty(SWAGGER_DESCRIPTION_SUFFIX, DEFAULT_SWAGGER_DESCRIPTION_SUFFIX);
+            idRangeFields = new HashSet<>();
+            for (String property : properties.getProperty(ID_RANGE_FIELDS, "").split(",")) {
+                if (!property.trim().isEmpty()) {
+                    idRangeFields.add(property.trim());
+                }
+            }
         }
     }
 
@@ -218,6 +240,33 @@ public class RequestParamGeneratorPlugin extends PluginAdapter {
         
         // Write to file
         writeRequestParamFile(content.toString(), requestParamClassName);
+        
+        // Publish the class and its date ranges for the service plugins
+        introspectedTable.setAttribute(REQUEST_PARAM_TYPE_ATTRIBUTE, requestParamPackage + "." + requestParamClassName);
+        introspectedTable.setAttribute(DATE_RANGE_FIELDS_ATTRIBUTE, collectDateRangeFields(fields));
+    }
+
+    /**
+     * Collects the date range fields of the RequestParam class for the service templates.
+     * Each entry holds the property name, its capitalized form and whether the range
+     * is compiled into a Snowflake ID range.
+     */
+    private List<Map<String, Object>> collectDateRangeFields(List<Field> fields) {
+        List<Map<String, Object>> dateRangeFields = new ArrayList<>();
+        if (!enableDateRange) {
+            return dateRangeFields;
+        }
+        for (Field field : fields) {
+            if (LOCALDATETIME_TYPE.equals(field.getType().getShortName())) {
+                String fieldName = field.getName();
+                Map<String, Object> dateRangeField = new HashMap<>();
+                dateRangeField.put("property", fieldName);
+                dateRangeField.put("Property", Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1));
+                dateRangeField.put("idRange", idRangeFields.contains(fieldName));
+                dateRangeFields.add(dateRangeField);
+            }
+        }
+        return dateRangeFields;
     }
 
     /**
@@ -256,6 +305,11 @@ public class RequestParamGeneratorPlugin extends PluginAdapter {
         String fieldType = field.getType().getShortName();
         String description = getFieldDescription(field, introspectedTable);
         
+        // Ranges of idRangeFields are answered by a primary-key range scan
+        if (idRangeFields.contains(fieldName)) {
+            description = description + " (matched by Snowflake ID range)";
+        }
+        
         // Start range field
         if (enableSwagger) {
             content.append("    @Schema(description = \"").append(description).append(" start range\")\n");
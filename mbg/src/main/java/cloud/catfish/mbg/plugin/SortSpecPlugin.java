@@ -0,0 +1,139 @@
+package cloud.catfish.mbg.plugin;
+
+import org.mybatis.generator.api.IntrospectedColumn;
+import org.mybatis.generator.api.IntrospectedTable;
+import org.mybatis.generator.api.PluginAdapter;
+import org.mybatis.generator.api.dom.java.*;
+import org.mybatis.generator.codegen.mybatis3.MyBatis3FormattingUtilities;
+import org.mybatis.generator.internal.util.StringUtility;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 排序白名单插件
+ * 在Example中生成SORT_SPEC（cloud.catfish.common.param.SortSpec），列出可排序的属性、对应列名及列是否为索引的首列，
+ * 请求中的sort字符串经SORT_SPEC转为ORDER BY子句，列名只来自白名单；对无索引列的排序按unindexedSort处理，
+ * 避免大表上的filesort
+ *
+ * 配置属性：
+ * unindexedSort - 无索引列排序的处理方式：REJECT（默认，拒绝）、WARN（记录警告）、ALLOW（允许）
+ *
+ * 索引信息在生成第一个Example时通过一个连接读取本context全部表的数据库元数据，
+ * 读取失败时记入MBG警告，只有主键列视为有索引
+ */
+public class SortSpecPlugin extends PluginAdapter {
+
+    private static final String SORT_SPEC_CLASS = "cloud.catfish.common.param.SortSpec";
+    private static final String UNINDEXED_SORT = "unindexedSort";
+    private static final String DEFAULT_UNINDEXED_SORT = "REJECT";
+
+    private String unindexedSort;
+    private List<String> warnings;
+    // 各表作为索引首列的列名（小写），首次使用时读取
+    private Map<IntrospectedTable, Set<String>> indexedColumns;
+
+    @Override
+    public boolean validate(List<String> warnings) {
+        this.warnings = warnings;
+        unindexedSort = properties.getProperty(UNINDEXED_SORT, DEFAULT_UNINDEXED_SORT).trim().toUpperCase(Locale.ROOT);
+        if (!"REJECT".equals(unindexedSort) && !"WARN".equals(unindexedSort) && !"ALLOW".equals(unindexedSort)) {
+            warnings.add("SortSpecPlugin: unindexedSort must be REJECT, WARN or ALLOW, using default: " + DEFAULT_UNINDEXED_SORT);
+            unindexedSort = DEFAULT_UNINDEXED_SORT;
+        }
+        return true;
+    }
+
+    /**
+     * 在Example中添加排序白名单
+     */
+    @Override
+    public boolean modelExampleClassGenerated(TopLevelClass topLevelClass, IntrospectedTable introspectedTable) {
+        FullyQualifiedJavaType sortSpecType = new FullyQualifiedJavaType(SORT_SPEC_CLASS);
+
+        Field field = new Field("SORT_SPEC", sortSpecType);
+        field.setVisibility(JavaVisibility.PUBLIC);
+        field.setStatic(true);
+        field.setFinal(true);
+        field.addJavaDocLine("/**");
+        field.addJavaDocLine(" * 可排序的属性及其列名，indexed为列是否为索引的首列");
+        field.addJavaDocLine(" */");
+        topLevelClass.addField(field);
+
+        Set<String> indexedColumns = new HashSet<>(getIndexedColumns(introspectedTable));
+        for (IntrospectedColumn column : introspectedTable.getPrimaryKeyColumns()) {
+            indexedColumns.add(column.getActualColumnName().toLowerCase(Locale.ROOT));
+        }
+        String entity = new FullyQualifiedJavaType(introspectedTable.getBaseRecordType()).getShortName();
+        InitializationBlock block = new InitializationBlock(true);
+        block.addBodyLine(String.format("SORT_SPEC = SortSpec.builder(\"%s\", SortSpec.UnindexedSort.%s)", entity, unindexedSort));
+        for (IntrospectedColumn column : introspectedTable.getNonBLOBColumns()) {
+            block.addBodyLine(String.format("        .column(\"%s\", \"%s\", %s)", column.getJavaProperty(),
+                    StringUtility.escapeStringForJava(MyBatis3FormattingUtilities.getEscapedColumnName(column)),
+                    indexedColumns.contains(column.getActualColumnName().toLowerCase(Locale.ROOT))));
+        }
+        block.addBodyLine("        .build();");
+        topLevelClass.addInitializationBlock(block);
+
+        topLevelClass.addImportedType(sortSpecType);
+        return true;
+    }
+
+    /**
+     * 取得表中作为索引首列的列名（小写），不含主键列
+     */
+    private Set<String> getIndexedColumns(IntrospectedTable introspectedTable) {
+        if (indexedColumns == null) {
+            indexedColumns = readIndexedColumns();
+        }
+        return indexedColumns.getOrDefault(introspectedTable, Set.of());
+    }
+
+    /**
+     * 通过一个连接读取本context全部表的索引首列，读取失败的表记入警告
+     */
+    private Map<IntrospectedTable, Set<String>> readIndexedColumns() {
+        Map<IntrospectedTable, Set<String>> result = new HashMap<>();
+        try (Connection connection = context.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (IntrospectedTable table : context.getIntrospectedTables()) {
+                try {
+                    result.put(table, readIndexedColumns(metaData, table));
+                } catch (SQLException e) {
+                    warnings.add("SortSpecPlugin: cannot read indexes of " + table.getFullyQualifiedTable()
+                            + ", only primary key columns are sortable without filesort: " + e.getMessage());
+                }
+            }
+        } catch (SQLException e) {
+            warnings.add("SortSpecPlugin: cannot connect to read indexes, only primary key columns are sortable without filesort: "
+                    + e.getMessage());
+        }
+        return result;
+    }
+
+    private static Set<String> readIndexedColumns(DatabaseMetaData metaData, IntrospectedTable table) throws SQLException {
+        Set<String> indexed = new HashSet<>();
+        try (ResultSet rs = metaData.getIndexInfo(
+                table.getFullyQualifiedTable().getIntrospectedCatalog(),
+                table.getFullyQualifiedTable().getIntrospectedSchema(),
+                table.getFullyQualifiedTable().getIntrospectedTableName(),
+                false, true)) {
+            while (rs.next()) {
+                // 复合索引只有首列能直接提供排序
+                String columnName = rs.getString("COLUMN_NAME");
+                if (columnName != null && rs.getShort("ORDINAL_POSITION") == 1) {
+                    indexed.add(columnName.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return indexed;
+    }
+}
@@ -45,6 +45,7 @@ import java.util.Properties;
  *   <li><code>mapperComponentModel</code> - MapStruct component model (default: spring)</li>
  *   <li><code>enableSwagger</code> - Enable Swagger3 annotations (default: true)</li>
  *   <li><code>swaggerDescriptionSuffix</code> - Suffix for class descriptions (default: " VO")</li>
+ *   <li><code>idCodec</code> - SnowflakeIdCodec (BASE62 or CROCKFORD_BASE32) for @SnowflakeIdFormat on primary key components (default: none)</li>
  * </ul>
  * 
  * <p><strong>Usage Example:</strong></p>
@@ -58,6 +59,7 @@ import java.util.Properties;
  *     &lt;property name="mapperComponentModel" value="spring"/&gt;
  *     &lt;property name="enableSwagger" value="true"/&gt;
  *     &lt;property name="swaggerDescriptionSuffix" value=" VO"/&gt;
+ *     &lt;property name="idCodec" value="BASE62"/&gt;
  * &lt;/plugin&gt;
  * </pre>
  * 
@@ -108,6 +110,7 @@ public class VoGeneratorPlugin extends PluginAdapter {
     private static final String MAPPER_COMPONENT_MODEL = "mapperComponentModel";
     private static final String ENABLE_SWAGGER = "enableSwagger";
     private static final String SWAGGER_DESCRIPTION_SUFFIX = "swaggerDescriptionSuffix";
+    private static final String ID_CODEC = "idCodec";
     
     // Default values
     private static final String DEFAULT_VO_PACKAGE_SUFFIX = ".vo";
@@ -129,6 +132,10 @@ public class VoGeneratorPlugin extends PluginAdapter {
     private static final String DATETIME_FORMAT_CLASS = "org.springframework.format.annotation.DateTimeFormat";
     private static final String LOCALDATETIME_TYPE = "LocalDateTime";
     
+    // Snowflake ID string format
+    private static final String SNOWFLAKE_ID_FORMAT_CLASS = "cloud.catfish.common.json.SnowflakeIdFormat";
+    private static final String SNOWFLAKE_ID_CODEC_CLASS = "cloud.catfish.common.util.SnowflakeIdCodec";
+    
     // Configuration fields
     private String voPackage;
     private String mapperPackage;
@@ -138,6 +145,7 @@ public class VoGeneratorPlugin extends PluginAdapter {
     private String mapperComponentModel = DEFAULT_COMPONENT_MODEL;
     private boolean enableSwagger = true;
     private String swaggerDescriptionSuffix = DEFAULT_SWAGGER_DESCRIPTION_SUFFIX;
+    private String idCodec;
 
     @Override
     public boolean validate(List<String> warnings) {
@@ -160,6 +168,8 @@ public class VoGeneratorPlugin extends PluginAdapter {
             warnings.add("VoGeneratorPlugin: mapperTargetProject is empty, using default: " + DEFAULT_TARGET_PROJECT);
             mapperTargetProject = DEFAULT_TARGET_PROJECT;
         }
+
+        idCodec = DomainModelPlugin.parseIdCodec("VoGeneratorPlugin", idCodec, warnings);
         
         return true;
     }
@@ -183,6 +193,7 @@ public class VoGeneratorPlugin extends PluginAdapter {
             mapperComponentModel = properties.getProperty(MAPPER_COMPONENT_MODEL, DEFAULT_COMPONENT_MODEL);
             enableSwagger = Boolean.parseBoolean(properties.getProperty(ENABLE_SWAGGER, "true"));
             swaggerDescriptionSuffix = properties.getProperty(SWAGGER_DESCRIPTION_SUFFIX, DEFAULT_SWAGGER_DESCRIPTION_SUFFIX);
+            idCodec = properties.getProperty(ID_CODEC);
         }
     }
     
@@ -260,6 +271,11 @@ public class VoGeneratorPlugin extends PluginAdapter {
                 voContent.append("    @DateTimeFormat(pattern = \"yyyy-MM-dd HH:mm:ss\")\n");
             }
             
+            // Serialize primary keys as fixed-width strings
+            if (idCodec != null && isPrimaryKey(field, introspectedTable)) {
+                voContent.append("    @SnowflakeIdFormat(SnowflakeIdCodec.").append(idCodec).append(")\n");
+            }
+            
             // Add Swagger annotation for field
             if (enableSwagger) {
                 voContent.append("    @Schema(description = \"").append(getFieldDescription(field, introspectedTable)).append("\")\n");
@@ -369,6 +385,12 @@ public class VoGeneratorPlugin extends PluginAdapter {
             content.append("import ").append(SWAGGER_SCHEMA_CLASS).append(";\n");
         }
         
+        // Add Snowflake ID format imports if an ID codec is configured
+        if (idCodec != null) {
+            content.append("import ").append(SNOWFLAKE_ID_FORMAT_CLASS).append(";\n");
+            content.append("import ").append(SNOWFLAKE_ID_CODEC_CLASS).append(";\n");
+        }
+        
         // Collect unique import types from fields
         domainClass.getFields().stream()
             .map(Field::getType)
@@ -383,6 +405,14 @@ public class VoGeneratorPlugin extends PluginAdapter {
         }
     }
     
+    /**
+     * Checks whether the field maps to a primary key column.
+     */
+    private boolean isPrimaryKey(Field field, IntrospectedTable introspectedTable) {
+        return introspectedTable.getPrimaryKeyColumns().stream()
+            .anyMatch(column -> column.getJavaProperty().equals(field.getName()));
+    }
+    
     /**
      * Generates a description for a field based on database column comments.
      */